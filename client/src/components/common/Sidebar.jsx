@@ -104,11 +104,11 @@ const Sidebar = () => {
             <p className="text-gray-600 text-xs">Posts</p>
           </div>
           <div>
-            <p className="font-bold">{user.followers?.length || 0}</p>
+            <p className="font-bold">{user.followerCount || 0}</p>
             <p className="text-gray-600 text-xs">Followers</p>
           </div>
           <div>
-            <p className="font-bold">{user.following?.length || 0}</p>
+            <p className="font-bold">{user.followingCount || 0}</p>
             <p className="text-gray-600 text-xs">Following</p>
           </div>
         </div>
@@ -22,7 +22,7 @@ const Feed = () => {
         setLoading(true);
         setError(null);
 
-        if (!user || !user.following || user.following.length === 0) {
+        if (!user || !user.followingCount) {
           setPosts([]);
           return;
         }
@@ -30,9 +30,6 @@ const Feed = () => {
         // Fetch posts from users the current user follows
         const response = await axios.get(`${apiUrl}/api/posts`, {
           withCredentials: true,
-          params: {
-            userIds: user.following.join(","), // Assuming backend supports filtering by user IDs
-          },
         });
 
         // console.log("Feed API response:", response.data);
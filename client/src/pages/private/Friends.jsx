@@ -10,6 +10,8 @@ const API_BASE_URL =
 const Friends = () => {
   const { user } = useAuth();
   const [friends, setFriends] = useState([]);
+  const [userId, setUserId] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
@@ -25,21 +27,19 @@ const Friends = () => {
           withCredentials: true,
         });
 
-        const userId = userResponse.data.id;
+        const currentUserId = userResponse.data.id;
+        setUserId(currentUserId);
 
-        // Fetch the list of users the current user is following
+        // Fetch the first page of users the current user is following
         const friendsResponse = await axios.get(
-          `${API_BASE_URL}/api/users/${userId}/following`,
+          `${API_BASE_URL}/api/users/${currentUserId}/following/page`,
           {
             withCredentials: true,
           }
         );
 
-        // Ensure response is an array
-        const fetchedFriends = Array.isArray(friendsResponse.data)
-          ? friendsResponse.data
-          : [];
-        setFriends(fetchedFriends);
+        setFriends(friendsResponse.data.items || []);
+        setNextCursor(friendsResponse.data.nextCursor);
         setLoading(false);
       } catch (err) {
         console.error("API Error:", err);
@@ -52,6 +52,22 @@ const Friends = () => {
     fetchFriends();
   }, [user]);
 
+  const handleLoadMore = async () => {
+    try {
+      const response = await axios.get(
+        `${API_BASE_URL}/api/users/${userId}/following/page`,
+        {
+          params: { cursor: nextCursor },
+          withCredentials: true,
+        }
+      );
+      setFriends((prev) => [...prev, ...(response.data.items || [])]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      setError(err.response?.data?.message || "Failed to fetch friends");
+    }
+  };
+
   const handleUnfollow = async (userId) => {
     try {
       await axios.delete(`${API_BASE_URL}/api/users/unfollow/${userId}`, {
@@ -95,6 +111,14 @@ const Friends = () => {
                   onUnfollow={handleUnfollow}
                 />
               ))}
+              {nextCursor && (
+                <button
+                  onClick={handleLoadMore}
+                  className="w-full py-2 text-amber-700 hover:text-amber-800"
+                >
+                  Load more
+                </button>
+              )}
             </div>
           )}
         </div>
@@ -27,27 +27,34 @@ const Peoples = () => {
         const userId = userResponse.data.id;
         // console.log("User Response:", userResponse.data);
 
-        // Fetch users the current user is following
-        const followingResponse = await axios.get(
-          `${API_BASE_URL}/api/users/${userId}/following`,
-          {
-            withCredentials: true,
-          }
-        );
-        const followingIds = Array.isArray(followingResponse.data)
-          ? followingResponse.data.map((u) => u.id)
-          : [];
-        // console.log("Following IDs:", followingIds);
-
         // Fetch all users
         const usersResponse = await axios.get(`${API_BASE_URL}/api/users`, {
           withCredentials: true,
         });
+        const listedUsers = Array.isArray(usersResponse.data)
+          ? usersResponse.data.filter((u) => u.id !== userId)
+          : [];
+
+        // Ask which of the listed users are already followed, instead of loading the whole following list
+        let followedIds = [];
+        if (listedUsers.length > 0) {
+          const followedResponse = await axios.get(
+            `${API_BASE_URL}/api/users/me/followed`,
+            {
+              params: { ids: listedUsers.map((u) => u.id).join(",") },
+              withCredentials: true,
+            }
+          );
+          followedIds = Array.isArray(followedResponse.data)
+            ? followedResponse.data
+            : [];
+        }
+        // console.log("Followed IDs:", followedIds);
 
         // Filter out followed users
-        const fetchedUsers = Array.isArray(usersResponse.data)
-          ? usersResponse.data.filter((u) => !followingIds.includes(u.id))
-          : [];
+        const fetchedUsers = listedUsers.filter(
+          (u) => !followedIds.includes(u.id)
+        );
         // console.log("Filtered Users:", fetchedUsers);
         setUsers(fetchedUsers);
         setLoading(false);
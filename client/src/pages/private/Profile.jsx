@@ -15,7 +15,9 @@ const Profile = () => {
   const navigate = useNavigate();
   const [profileUser, setProfileUser] = useState(null);
   const [followers, setFollowers] = useState([]);
+  const [followersCursor, setFollowersCursor] = useState(null);
   const [following, setFollowing] = useState([]);
+  const [followingCursor, setFollowingCursor] = useState(null);
   const [posts, setPosts] = useState([]);
   const [formData, setFormData] = useState({
     name: "",
@@ -49,11 +51,8 @@ const Profile = () => {
 
         fetchFollowers(userData.id);
         fetchFollowing(userData.id);
+        if (!isOwnProfile) fetchFollowStatus(userData.id);
         fetchPosts(userData.id);
-
-        if (!isOwnProfile && user) {
-          setIsFollowing(userData.followers.includes(user.id));
-        }
       } catch (err) {
         console.error(
           "Fetch Profile Error:",
@@ -66,38 +65,67 @@ const Profile = () => {
     if (user || userId) fetchProfile();
   }, [user, userId, navigate]);
 
-  const fetchFollowers = async (id) => {
+  // One page of followers; pass the previous page's cursor to append the next one
+  const fetchFollowers = async (id, cursor = null) => {
     try {
       const response = await axios.get(
-        `${API_BASE_URL}/api/users/${id}/followers`,
-        { withCredentials: true }
+        `${API_BASE_URL}/api/users/${id}/followers/page`,
+        { params: { cursor }, withCredentials: true }
       );
-      setFollowers(response.data);
+      setFollowers((prev) =>
+        cursor ? [...prev, ...response.data.items] : response.data.items
+      );
+      setFollowersCursor(response.data.nextCursor);
     } catch (err) {
       console.error(
         "Fetch Followers Error:",
         err.response?.data || err.message
       );
-      setFollowers([]);
+      if (!cursor) setFollowers([]);
     }
   };
 
-  const fetchFollowing = async (id) => {
+  const fetchFollowing = async (id, cursor = null) => {
     try {
       const response = await axios.get(
-        `${API_BASE_URL}/api/users/${id}/following`,
-        { withCredentials: true }
+        `${API_BASE_URL}/api/users/${id}/following/page`,
+        { params: { cursor }, withCredentials: true }
       );
-      setFollowing(response.data);
+      setFollowing((prev) =>
+        cursor ? [...prev, ...response.data.items] : response.data.items
+      );
+      setFollowingCursor(response.data.nextCursor);
     } catch (err) {
       console.error(
         "Fetch Following Error:",
         err.response?.data || err.message
       );
-      setFollowing([]);
+      if (!cursor) setFollowing([]);
+    }
+  };
+
+  const fetchFollowStatus = async (id) => {
+    try {
+      const response = await axios.get(
+        `${API_BASE_URL}/api/users/${id}/follow-status`,
+        { withCredentials: true }
+      );
+      setIsFollowing(response.data.following);
+    } catch (err) {
+      console.error(
+        "Fetch Follow Status Error:",
+        err.response?.data || err.message
+      );
     }
   };
 
+  const adjustFollowerCount = (delta) => {
+    setProfileUser((prev) => ({
+      ...prev,
+      followerCount: Math.max(0, (prev.followerCount || 0) + delta),
+    }));
+  };
+
   const fetchPosts = async (id) => {
     try {
       const response = await axios.get(`${API_BASE_URL}/api/posts/user/${id}`, {
@@ -117,6 +145,7 @@ const Profile = () => {
         {},
         { withCredentials: true }
       );
+      if (!isFollowing) adjustFollowerCount(1);
       setIsFollowing(true);
       fetchFollowers(userId);
       fetchPosts(userId);
@@ -134,6 +163,7 @@ const Profile = () => {
       await axios.delete(`${API_BASE_URL}/api/users/unfollow/${userId}`, {
         withCredentials: true,
       });
+      if (isFollowing) adjustFollowerCount(-1);
       setIsFollowing(false);
       fetchFollowers(userId);
       fetchPosts(userId);
@@ -281,13 +311,13 @@ const Profile = () => {
               </div>
               <div className="text-center">
                 <span className="block text-xl font-bold text-amber-700">
-                  {followers.length}
+                  {profileUser.followerCount || 0}
                 </span>
                 <span className="text-gray-600">Followers</span>
               </div>
               <div className="text-center">
                 <span className="block text-xl font-bold text-amber-700">
-                  {following.length}
+                  {profileUser.followingCount || 0}
                 </span>
                 <span className="text-gray-600">Following</span>
               </div>
@@ -397,6 +427,16 @@ const Profile = () => {
                       {followers.map((follower) => (
                         <ProfileCard key={follower.id} user={follower} />
                       ))}
+                      {followersCursor && (
+                        <button
+                          onClick={() =>
+                            fetchFollowers(profileUser.id, followersCursor)
+                          }
+                          className="w-full py-2 text-amber-700 hover:text-amber-800"
+                        >
+                          Load more
+                        </button>
+                      )}
                     </div>
                   )}
                 </div>
@@ -417,6 +457,16 @@ const Profile = () => {
                       {following.map((followed) => (
                         <ProfileCard key={followed.id} user={followed} />
                       ))}
+                      {followingCursor && (
+                        <button
+                          onClick={() =>
+                            fetchFollowing(profileUser.id, followingCursor)
+                          }
+                          className="w-full py-2 text-amber-700 hover:text-amber-800"
+                        >
+                          Load more
+                        </button>
+                      )}
                     </div>
                   )}
                 </div>
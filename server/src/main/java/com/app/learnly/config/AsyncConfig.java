@@ -0,0 +1,126 @@
+package com.app.learnly.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${feed.fanout.threads:4}")
+    private int fanoutThreads;
+
+    @Value("${feed.fanout.queue-capacity:10000}")
+    private int fanoutQueueCapacity;
+
+    @Value("${maintenance.threads:2}")
+    private int maintenanceThreads;
+
+    @Value("${media.variants.threads:2}")
+    private int mediaThreads;
+
+    @Value("${media.variants.queue-capacity:100}")
+    private int mediaQueueCapacity;
+
+    @Value("${web.async.threads:8}")
+    private int webAsyncThreads;
+
+    @Value("${web.async.queue-capacity:100}")
+    private int webAsyncQueueCapacity;
+
+    // Boot only creates its own applicationTaskExecutor when no other Executor
+    // exists, and without it Spring MVC runs streamed responses on a new thread
+    // each. Under this name the MVC auto-configuration uses it for async
+    // requests; when it is full the request thread streams the body itself.
+    @Bean(name = "applicationTaskExecutor")
+    public ThreadPoolTaskExecutor applicationTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(webAsyncThreads);
+        executor.setMaxPoolSize(webAsyncThreads);
+        executor.setQueueCapacity(webAsyncQueueCapacity);
+        executor.setThreadNamePrefix("web-async-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs timeline fan-out off the request thread; when the queue is full the
+    // caller runs the task itself rather than dropping it.
+    @Bean(name = "feedExecutor")
+    public Executor feedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(fanoutThreads);
+        executor.setMaxPoolSize(fanoutThreads);
+        executor.setQueueCapacity(fanoutQueueCapacity);
+        executor.setThreadNamePrefix("feed-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Long-running background jobs (migrations, backfills, index and graph
+    // rebuilds), kept off the fan-out pool so they cannot delay timelines.
+    // The queue holds every job queued at startup; none is ever run inline.
+    @Bean(name = "maintenanceExecutor")
+    public Executor maintenanceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maintenanceThreads);
+        executor.setMaxPoolSize(maintenanceThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Single worker for cascading post deletes. A drain request that arrives
+    // while one is already queued is redundant, so it is dropped.
+    @Bean(name = "cleanupExecutor")
+    public Executor cleanupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("post-cleanup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Image resizing is CPU and memory heavy, so the pool is small and the
+    // queue short; when it is full the creating request resizes its own images.
+    @Bean(name = "mediaExecutor")
+    public Executor mediaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mediaThreads);
+        executor.setMaxPoolSize(mediaThreads);
+        executor.setQueueCapacity(mediaQueueCapacity);
+        executor.setThreadNamePrefix("media-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Size-triggered flushes of the like write-behind buffer. One flush at a
+    // time; a trigger while another is queued is redundant, so it is dropped.
+    @Bean(name = "likeFlushExecutor")
+    public Executor likeFlushExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("like-flush-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
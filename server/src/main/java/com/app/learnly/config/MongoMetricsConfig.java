@@ -0,0 +1,54 @@
+package com.app.learnly.config;
+
+import com.app.learnly.service.QueryMetrics;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Configuration
+public class MongoMetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryCountingCustomizer(QueryMetrics queryMetrics) {
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                queryMetrics.onCommand();
+            }
+        };
+        return builder -> builder.addCommandListener(listener);
+    }
+
+    // Attributes Mongo commands to "METHOD /path/{pattern}". Async (streamed)
+    // responses record themselves through QueryMetrics.measure instead.
+    @Bean
+    public OncePerRequestFilter queryCountingFilter(QueryMetrics queryMetrics) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                queryMetrics.begin();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    if (pattern == null || request.isAsyncStarted()) {
+                        queryMetrics.discard();
+                    } else {
+                        queryMetrics.end(request.getMethod() + " " + pattern);
+                    }
+                }
+            }
+        };
+    }
+}
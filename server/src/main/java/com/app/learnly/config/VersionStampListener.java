@@ -0,0 +1,21 @@
+package com.app.learnly.config;
+
+import com.app.learnly.model.Versioned;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+// Stamps whole-document saves; targeted updates stamp themselves with VersionStamps.touch
+@Component
+public class VersionStampListener extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof Versioned versioned) {
+            versioned.setVersion(versioned.getVersion() + 1);
+            versioned.setLastModified(new Date());
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.app.learnly.controller;
 
 import com.app.learnly.model.Comment;
+import com.app.learnly.model.CommentView;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.service.CommentService;
+import com.app.learnly.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/comments")
@@ -26,21 +31,65 @@ public class CommentController {
         try {
             Comment createdComment = commentService.createComment(postId, comment, principal);
             return new ResponseEntity<>(createdComment, HttpStatus.CREATED);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Comment>> getCommentsByPostId(@PathVariable String postId) {
+    public ResponseEntity<List<CommentView>> getCommentsByPostId(@PathVariable String postId) {
         try {
-            List<Comment> comments = commentService.getCommentsByPostId(postId);
+            List<CommentView> comments = commentService.getCommentsByPostId(postId);
             return ResponseEntity.ok(comments);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
+    // Latest comments of each post of a feed page: { "<postId>": [comments, newest first] }
+    @PostMapping("/latest")
+    public ResponseEntity<Map<String, List<CommentView>>> getLatestComments(
+            @RequestBody List<String> postIds,
+            @RequestParam(defaultValue = "2") int limit) {
+        try {
+            return ResponseEntity.ok(commentService.getLatestComments(postIds, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Keyset-paginated top-level comments, oldest first, each with its replyCount
+    @GetMapping("/post/{postId}/page")
+    public ResponseEntity<CursorPage<CommentView>> getTopLevelComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(commentService.getTopLevelComments(postId, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        }
+    }
+
+    // Keyset-paginated replies of a thread, oldest first
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<CursorPage<CommentView>> getReplies(
+            @PathVariable String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(commentService.getReplies(commentId, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        }
+    }
+
     @PutMapping("/{commentId}")
     public ResponseEntity<Comment> updateComment(
             @PathVariable String commentId,
@@ -0,0 +1,87 @@
+package com.app.learnly.controller;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.User;
+import com.app.learnly.repository.UserRepository;
+import com.app.learnly.service.FeedMetrics;
+import com.app.learnly.service.FeedRankingService;
+import com.app.learnly.service.TimelineService;
+import com.app.learnly.util.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Autowired
+    private FeedMetrics feedMetrics;
+
+    // Home timeline of the current user: own posts plus posts of followed users
+    @GetMapping
+    public ResponseEntity<CursorPage<PostView>> getHomeFeed(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Optional<User> user = userRepository.findByProviderId(providerId);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            PageCursor after = PageCursor.decode(cursor);
+            return ResponseEntity.ok(timelineService.getHomeTimeline(user.get(), after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Home feed ordered by recency, engagement and follow affinity instead of time alone
+    @GetMapping("/ranked")
+    public ResponseEntity<List<PostView>> getRankedFeed(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(defaultValue = "20") int limit) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Optional<User> user = userRepository.findByProviderId(providerId);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(feedRankingService.getRankedFeed(user.get(), limit));
+    }
+
+    // Per-stage feed latencies (push fan-out, push/pull reads, merge, ranking)
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Map<String, Object>>> getFeedMetrics() {
+        return ResponseEntity.ok(feedMetrics.snapshot());
+    }
+}
@@ -1,19 +1,26 @@
 package com.app.learnly.controller;
 
 import com.app.learnly.model.LearningPlan;
+import com.app.learnly.model.LearningPlanView;
 import com.app.learnly.model.User;
 import com.app.learnly.repository.UserRepository;
+import com.app.learnly.service.DocumentPatcher;
 import com.app.learnly.service.LearningPlanService;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -62,13 +69,8 @@ public class LearningPlanController {
     @GetMapping("/{id}")
     public ResponseEntity<LearningPlan> getLearningPlanById(
             @PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        Optional<LearningPlan> planOptional = learningPlanService.getLearningPlanById(id);
-        if (!planOptional.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        LearningPlan plan = planOptional.get();
+            @AuthenticationPrincipal OAuth2User principal,
+            WebRequest request) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
                 : principal.getAttribute("id");
@@ -78,6 +80,18 @@ public class LearningPlanController {
         }
 
         User user = userOptional.get();
+        // The client's copy of a plan it may see is current: 304 without loading the plan
+        VersionStamps.Stamp stamp = learningPlanService.getVisibleVersionStamp(id, user.getId());
+        if (stamp != null && request.checkNotModified(stamp.etag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
+
+        Optional<LearningPlan> planOptional = learningPlanService.getLearningPlanById(id);
+        if (!planOptional.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        LearningPlan plan = planOptional.get();
         // Check visibility: allow access if public or owned by the user
         if (!plan.isPublic() && !plan.getUser().getId().equals(user.getId())) {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
@@ -88,7 +102,7 @@ public class LearningPlanController {
 
     // Get learning plans for the current user
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<LearningPlan>> getLearningPlansByUserId(
+    public ResponseEntity<List<LearningPlanView>> getLearningPlansByUserId(
             @PathVariable String userId,
             @AuthenticationPrincipal OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
@@ -105,19 +119,15 @@ public class LearningPlanController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
-        List<LearningPlan> plans = learningPlanService.getLearningPlansByUserId(userId);
+        List<LearningPlanView> plans = learningPlanService.getLearningPlansByUserId(userId);
         return new ResponseEntity<>(plans, HttpStatus.OK);
     }
 
 
     // Get all public learning plans
     @GetMapping("/public")
-    public ResponseEntity<List<LearningPlan>> getPublicPlans() {
-        List<LearningPlan> allPlans = learningPlanService.getAllLearningPlans();
-        List<LearningPlan> publicPlans = allPlans.stream()
-                .filter(LearningPlan::isPublic)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(publicPlans, HttpStatus.OK);
+    public ResponseEntity<List<LearningPlanView>> getPublicPlans() {
+        return new ResponseEntity<>(learningPlanService.getPublicLearningPlans(), HttpStatus.OK);
     }
 
     // Import a public learning plan to the user's dashboard
@@ -181,8 +191,7 @@ public class LearningPlanController {
         LearningPlan savedPlan = learningPlanService.createLearningPlan(importedPlan);
 
         // Add the user to the original plan's followers
-        originalPlan.getFollowers().add(user.getId());
-        learningPlanService.updateLearningPlan(originalPlan.getId(), originalPlan);
+        learningPlanService.addFollower(originalPlan.getId(), user.getId());
 
         return new ResponseEntity<>(savedPlan, HttpStatus.CREATED);
     }
@@ -201,25 +210,41 @@ public class LearningPlanController {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        User user = userOptional.get();
-        Optional<LearningPlan> existingPlanOptional = learningPlanService.getLearningPlanById(id);
-        if (!existingPlanOptional.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        // Only the owner can update; checked by the update itself
+        try {
+            LearningPlan updatedPlan = learningPlanService.updateLearningPlan(id, userOptional.get().getId(), learningPlan);
+            return ResponseEntity.ok().eTag(VersionStamps.etag(id, updatedPlan.getVersion())).body(updatedPlan);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+    }
 
-        LearningPlan existingPlan = existingPlanOptional.get();
-        if (!existingPlan.getUser().getId().equals(user.getId())) {
-            return new ResponseEntity<>(HttpStatus.FORBIDDEN); // Only owner can update
+    // Change only the fields in the body; If-Match with the plan's ETag rejects stale edits with 412
+    @PatchMapping("/{id}")
+    public ResponseEntity<LearningPlan> patchLearningPlan(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String providerId = principal.getAttribute("sub") != null
+                ? principal.getAttribute("sub")
+                : principal.getAttribute("id");
+        Optional<User> userOptional = userRepository.findByProviderId(providerId);
+        if (!userOptional.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        learningPlan.setUser(user); // Ensure user remains consistent
-        learningPlan.setUpdatedAt(new Date());
-        LearningPlan updatedPlan = learningPlanService.updateLearningPlan(id, learningPlan);
-
-        if (updatedPlan != null) {
-            return new ResponseEntity<>(updatedPlan, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            Long expectedVersion = DocumentPatcher.expectedVersion(ifMatch, id);
+            LearningPlan updatedPlan = learningPlanService.patchLearningPlan(
+                    id, userOptional.get().getId(), changes, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionStamps.etag(id, updatedPlan.getVersion())).body(updatedPlan);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
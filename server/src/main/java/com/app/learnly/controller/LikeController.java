@@ -1,15 +1,21 @@
 package com.app.learnly.controller;
 
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.Like;
+import com.app.learnly.model.LikeView;
 import com.app.learnly.service.LikeService;
+import com.app.learnly.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/likes")
@@ -18,6 +24,7 @@ public class LikeController {
     @Autowired
     private LikeService likeService;
 
+    // Idempotent: liking twice returns the existing like
     @PostMapping("/post/{postId}")
     public ResponseEntity<Like> likePost(
             @PathVariable String postId,
@@ -25,14 +32,14 @@ public class LikeController {
         try {
             Like like = likeService.likePost(postId, principal);
             return ResponseEntity.ok(like);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
         } catch (RuntimeException e) {
-            if (e.getMessage().equals("User already liked this post")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
-            }
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Idempotent: unliking a post that is not liked also returns 204
     @DeleteMapping("/post/{postId}")
     public ResponseEntity<Void> unlikePost(
             @PathVariable String postId,
@@ -40,18 +47,41 @@ public class LikeController {
         try {
             likeService.unlikePost(postId, principal);
             return ResponseEntity.noContent().build();
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Full like rows; with countOnly=true just { "count": n } from the post's counter
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Like>> getLikesByPostId(@PathVariable String postId) {
+    public ResponseEntity<?> getLikesByPostId(
+            @PathVariable String postId,
+            @RequestParam(defaultValue = "false") boolean countOnly) {
         try {
-            List<Like> likes = likeService.getLikesByPostId(postId);
+            if (countOnly) {
+                return ResponseEntity.ok(Map.of("count", likeService.countLikes(postId)));
+            }
+            List<LikeView> likes = likeService.getLikesByPostId(postId);
             return ResponseEntity.ok(likes);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    // Keyset-paginated likers, newest first: { "items": [{ id, name, picture }], "nextCursor": "..." | null }
+    @GetMapping("/post/{postId}/likers")
+    public ResponseEntity<CursorPage<AuthorSummary>> getLikers(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(likeService.getLikers(postId, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.app.learnly.controller;
+
+import com.app.learnly.model.MediaObject;
+import com.app.learnly.model.User;
+import com.app.learnly.repository.UserRepository;
+import com.app.learnly.service.MediaStorageService;
+import com.app.learnly.util.ByteRange;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    // Content-addressed URLs never change content, so they can be cached forever
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Upload one file; the returned url goes into Post.mediaUrls or ProgressUpdate.mediaUrls
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> uploadMedia(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam("file") MultipartFile file) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Optional<User> user = userRepository.findByProviderId(providerId);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            MediaObject media = mediaStorageService.store(file, user.get().getId());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("url", MediaStorageService.urlOf(media.getHash()));
+            body.put("hash", media.getHash());
+            body.put("contentType", media.getContentType());
+            body.put("size", media.getSize());
+            return new ResponseEntity<>(body, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+    }
+
+    // Serves a stored file with single-range support for video seeking
+    @GetMapping("/{hash}")
+    public void getMedia(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        MediaObject media = mediaStorageService.find(hash);
+        if (media == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + media.getHash() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        ByteRange range;
+        try {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), media.getSize());
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + media.getSize());
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && ifRange != null && !ifRange.equals(etag)) {
+            range = null;
+        }
+
+        response.setContentType(media.getContentType());
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(media.getSize()));
+            response.setContentLengthLong(range.length());
+        } else {
+            response.setContentLengthLong(media.getSize());
+        }
+        if (!"HEAD".equals(request.getMethod())) {
+            mediaStorageService.transfer(media, range, request, response);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.learnly.controller;
+
+import com.app.learnly.service.FollowSuggestionService;
+import com.app.learnly.service.LikeWriteBuffer;
+import com.app.learnly.service.PostCleanupService;
+import com.app.learnly.service.QueryMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private PostCleanupService postCleanupService;
+
+    @Autowired
+    private LikeWriteBuffer likeWriteBuffer;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    // Mongo commands per endpoint, to compare query counts before and after changes
+    @GetMapping("/queries")
+    public ResponseEntity<Map<String, Map<String, Object>>> getQueryCounts() {
+        return ResponseEntity.ok(queryMetrics.snapshot());
+    }
+
+    // Progress of the background cleanup after post deletes
+    @GetMapping("/post-cleanup")
+    public ResponseEntity<Map<String, Object>> getPostCleanupMetrics() {
+        return ResponseEntity.ok(postCleanupService.snapshot());
+    }
+
+    // Depth and flush latency of the like write-behind buffer
+    @GetMapping("/like-buffer")
+    public ResponseEntity<Map<String, Object>> getLikeBufferMetrics() {
+        return ResponseEntity.ok(likeWriteBuffer.snapshot());
+    }
+
+    // Size, estimated memory per edge and request latency of the in-memory follow graph
+    @GetMapping("/follow-graph")
+    public ResponseEntity<Map<String, Object>> getFollowGraphMetrics() {
+        return ResponseEntity.ok(followSuggestionService.snapshot());
+    }
+}
@@ -1,16 +1,37 @@
 package com.app.learnly.controller;
 
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.Post;
-import com.app.learnly.model.User;
+import com.app.learnly.model.PostBatch;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.TrendingTag;
+import com.app.learnly.model.ViewerState;
+import com.app.learnly.service.DocumentPatcher;
+import com.app.learnly.service.EngagementCounterService;
+import com.app.learnly.service.PostSearchService;
 import com.app.learnly.service.PostService;
+import com.app.learnly.service.QueryMetrics;
+import com.app.learnly.service.TrendingTagService;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -20,6 +41,21 @@ public class PostController {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+
+    @Autowired
+    private TrendingTagService trendingTagService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     public ResponseEntity<Post> createPost(
             @RequestBody Post post,
@@ -32,35 +68,131 @@ public class PostController {
         }
     }
 
+    // Streams all posts as a JSON array, newest first, without buffering the collection
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<StreamingResponseBody> getAllPosts() {
+        StreamingResponseBody body = out -> queryMetrics.measure("GET /api/posts", () -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                postService.streamAllPosts(post -> writeValue(generator, post));
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Keyset-paginated posts: { "items": [...], "nextCursor": "..." | null }
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PostView>> getPostsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(postService.getPostsPage(PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Full-text search over title, tags and content; quote words for a phrase match
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<PostView>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(postSearchService.search(q, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Served from the in-memory trending engine; window is 1h, 24h or 7d
+    @GetMapping("/trending-tags")
+    public ResponseEntity<List<TrendingTag>> getTrendingTags(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(trendingTagService.getTrendingTags(window, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Multi-get for screens that hold a list of post ids, e.g. saved posts
+    @PostMapping("/batch")
+    public ResponseEntity<PostBatch> getPostsByIds(@RequestBody List<String> ids) {
+        try {
+            return ResponseEntity.ok(postService.getPostsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Liked/saved/authored flags of the caller for a page of posts, in one request
+    @PostMapping("/viewer-state")
+    public ResponseEntity<List<ViewerState>> getViewerState(
+            @RequestBody List<String> ids,
+            @AuthenticationPrincipal OAuth2User principal) {
+        try {
+            return ResponseEntity.ok(postService.getViewerState(ids, principal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPostById(@PathVariable String id) {
+    public ResponseEntity<Post> getPostById(@PathVariable String id, WebRequest request) {
+        VersionStamps.Stamp stamp = postService.getVersionStamp(id);
+        if (stamp == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // The client's copy is current: 304 without loading the post
+        if (request.checkNotModified(stamp.etag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
         Optional<Post> post = postService.getPostById(id);
         return post.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Like and comment counts only, read from the denormalized counters on the post
+    @GetMapping("/{id}/counts")
+    public ResponseEntity<Map<String, Long>> getPostCounts(@PathVariable String id) {
+        return engagementCounterService.getCounts(id)
+                .map(post -> ResponseEntity.ok(Map.of(
+                        "likeCount", post.getLikeCount(),
+                        "commentCount", post.getCommentCount())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Post>> getPostsByUserId(
+    public ResponseEntity<List<PostView>> getPostsByUserId(
             @PathVariable String userId,
             @AuthenticationPrincipal OAuth2User principal) {
         try {
-            List<Post> posts = postService.getPostsByUserId(userId, principal);
+            List<PostView> posts = postService.getPostsByUserId(userId, principal);
             return ResponseEntity.ok(posts);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
         }
     }
 
+    // Keyset-paginated posts with one tag, newest first; /api/tags/posts combines several tags
     @GetMapping("/tag/{tag}")
-    public ResponseEntity<List<Post>> getPostsByTag(@PathVariable String tag) {
-        List<Post> posts = postService.getPostsByTag(tag);
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<CursorPage<PostView>> getPostsByTag(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(postService.getPostsByTag(tag, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
@@ -70,12 +202,39 @@ public class PostController {
             @AuthenticationPrincipal OAuth2User principal) {
         try {
             Post updatedPost = postService.updatePost(id, post, principal);
-            return ResponseEntity.ok(updatedPost);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, e.getMessage().contains("not found") ? HttpStatus.NOT_FOUND : HttpStatus.FORBIDDEN);
+            return ResponseEntity.ok().eTag(etag(updatedPost)).body(updatedPost);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
+    // Changes only the fields in the body; If-Match with the post's ETag rejects stale edits with 412
+    @PatchMapping("/{id}")
+    public ResponseEntity<Post> patchPost(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal OAuth2User principal) {
+        try {
+            Long expectedVersion = DocumentPatcher.expectedVersion(ifMatch, id);
+            Post updatedPost = postService.patchPost(id, changes, expectedVersion, principal);
+            return ResponseEntity.ok().eTag(etag(updatedPost)).body(updatedPost);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Same form as the conditional GET's ETag, which also covers the embedded author
+    private static String etag(Post post) {
+        return post.getUser() != null
+                ? VersionStamps.etag(post.getId(), post.getVersion(), post.getUser().getVersion())
+                : VersionStamps.etag(post.getId(), post.getVersion());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(
             @PathVariable String id,
@@ -87,4 +246,12 @@ public class PostController {
             return new ResponseEntity<>(e.getMessage().contains("not found") ? HttpStatus.NOT_FOUND : HttpStatus.FORBIDDEN);
         }
     }
+
+    private void writeValue(JsonGenerator generator, Object value) {
+        try {
+            objectMapper.writeValue(generator, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
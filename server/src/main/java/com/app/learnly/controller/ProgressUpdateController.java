@@ -1,13 +1,22 @@
 package com.app.learnly.controller;
 
 import com.app.learnly.model.ProgressUpdate;
+import com.app.learnly.model.User;
+import com.app.learnly.repository.UserRepository;
+import com.app.learnly.service.DocumentPatcher;
 import com.app.learnly.service.ProgressUpdateService;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,6 +26,9 @@ public class ProgressUpdateController {
     @Autowired
     private ProgressUpdateService progressUpdateService;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @PostMapping
     public ResponseEntity<ProgressUpdate> createProgressUpdate(@RequestBody ProgressUpdate progressUpdate) {
         ProgressUpdate createdUpdate = progressUpdateService.createProgressUpdate(progressUpdate);
@@ -43,13 +55,46 @@ public class ProgressUpdateController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ProgressUpdate> updateProgressUpdate(@PathVariable String id, @RequestBody ProgressUpdate progressUpdate) {
-        ProgressUpdate updatedUpdate = progressUpdateService.updateProgressUpdate(id, progressUpdate);
+    public ResponseEntity<ProgressUpdate> updateProgressUpdate(
+            @PathVariable String id,
+            @RequestBody ProgressUpdate progressUpdate,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = findUser(principal);
+        if (user.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
 
-        if (updatedUpdate != null) {
-            return new ResponseEntity<>(updatedUpdate, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            ProgressUpdate updatedUpdate = progressUpdateService.updateProgressUpdate(id, user.get().getId(), progressUpdate);
+            return ResponseEntity.ok().eTag(VersionStamps.etag(id, updatedUpdate.getVersion())).body(updatedUpdate);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Change only the fields in the body; If-Match with the update's ETag rejects stale edits with 412
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProgressUpdate> patchProgressUpdate(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = findUser(principal);
+        if (user.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        try {
+            Long expectedVersion = DocumentPatcher.expectedVersion(ifMatch, id);
+            ProgressUpdate updatedUpdate = progressUpdateService.patchProgressUpdate(
+                    id, user.get().getId(), changes, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionStamps.etag(id, updatedUpdate.getVersion())).body(updatedUpdate);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(e.getStatusCode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -63,4 +108,11 @@ public class ProgressUpdateController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    private Optional<User> findUser(OAuth2User principal) {
+        String providerId = principal.getAttribute("sub") != null
+                ? principal.getAttribute("sub")
+                : principal.getAttribute("id");
+        return providerId != null ? userRepository.findByProviderId(providerId) : Optional.empty();
+    }
+}
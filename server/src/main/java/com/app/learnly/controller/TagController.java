@@ -0,0 +1,50 @@
+package com.app.learnly.controller;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.TagStat;
+import com.app.learnly.service.TagIndexService;
+import com.app.learnly.util.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tags")
+public class TagController {
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    // Most used tags, optionally filtered by prefix
+    @GetMapping
+    public ResponseEntity<List<TagStat>> getTopTags(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(tagIndexService.getTopTags(prefix, limit));
+    }
+
+    @GetMapping("/{tag}/count")
+    public ResponseEntity<Map<String, Object>> getTagCount(@PathVariable String tag) {
+        return ResponseEntity.ok(Map.of("tag", tag, "postCount", tagIndexService.getTagCount(tag)));
+    }
+
+    // Posts matching ?all=a,b (AND), ?any=c,d (OR) and ?none=e (NOT), newest first
+    @GetMapping("/posts")
+    public ResponseEntity<CursorPage<PostView>> findPostsByTags(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            PageCursor after = PageCursor.decode(cursor);
+            return ResponseEntity.ok(tagIndexService.findPosts(all, any, none, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.app.learnly.controller;
 
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.User;
+import com.app.learnly.model.UserSuggestion;
+import com.app.learnly.model.UserView;
 import com.app.learnly.repository.UserRepository;
 import com.app.learnly.service.UserService;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
@@ -28,17 +36,36 @@ public class UserController {
 
     // Get current user
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal OAuth2User principal) {
+    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal OAuth2User principal, WebRequest request) {
         String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
         if (providerId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // The client's copy is current: 304 without loading the user and their follower arrays
+        VersionStamps.Stamp stamp = userService.getVersionStamp(providerId);
+        if (stamp != null && request.checkNotModified(stamp.etag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
+
         Optional<User> user = userRepository.findByProviderId(providerId);
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // "People you may know": users two hops away in the follow graph, best first
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<UserSuggestion>> getSuggestions(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(userService.getSuggestions(providerId, limit));
+    }
+
     // Get a specific user by ID
     @GetMapping("/{userId}")
     public ResponseEntity<User> getUserById(@PathVariable String userId) {
@@ -47,12 +74,13 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // Search users
+    // Search users by name/email prefix; the first page only, as a plain array for existing clients
     @GetMapping
-    public ResponseEntity<List<User>> searchUsers(
+    public ResponseEntity<List<UserView>> searchUsers(
             @AuthenticationPrincipal OAuth2User principal,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String email
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "100") int limit
     ) {
         String currentUserProviderId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
 
@@ -60,23 +88,33 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        // Get all users except the current user
-        List<User> users = userRepository.findByProviderIdNot(currentUserProviderId);
-
-        // Apply optional filtering by name and email
-        if (name != null) {
-            users = users.stream()
-                    .filter(user -> user.getName().toLowerCase().contains(name.toLowerCase()))
-                    .collect(Collectors.toList());
+        try {
+            return ResponseEntity.ok(userService.searchUsers(currentUserProviderId, null, name, email, null, limit).getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+    }
 
-        if (email != null) {
-            users = users.stream()
-                    .filter(user -> user.getEmail().toLowerCase().contains(email.toLowerCase()))
-                    .collect(Collectors.toList());
+    // Keyset-paginated user search ordered by name: { "items": [...], "nextCursor": "..." | null }
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<UserView>> searchUsersPage(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        String currentUserProviderId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (currentUserProviderId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        return ResponseEntity.ok(users);
+        try {
+            return ResponseEntity.ok(userService.searchUsers(currentUserProviderId, q, name, email, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Update user profile
@@ -90,25 +128,10 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Optional<User> optionalUser = userRepository.findByProviderId(providerId);
-        if (optionalUser.isEmpty()) {
+        User updatedUser = userService.updateProfile(providerId, updates);
+        if (updatedUser == null) {
             return ResponseEntity.notFound().build();
         }
-
-        User user = optionalUser.get();
-
-        // Update fields that are included in the request
-        if (updates.containsKey("name")) {
-            user.setName(updates.get("name"));
-        }
-        if (updates.containsKey("bio")) {
-            user.setBio(updates.get("bio"));
-        }
-        if (updates.containsKey("picture")) {
-            user.setPicture(updates.get("picture"));
-        }
-
-        User updatedUser = userRepository.save(user);
         return ResponseEntity.ok(updatedUser);
     }
 
@@ -120,16 +143,13 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Optional<User> optionalUser = userRepository.findByProviderId(providerId);
-        if (optionalUser.isEmpty()) {
+        if (!userService.deleteAccount(providerId)) {
             return ResponseEntity.notFound().build();
         }
-
-        userRepository.delete(optionalUser.get());
         return ResponseEntity.noContent().build();
     }
 
-    // Follow a user
+    // Follow a user; following someone already followed is a no-op
     @PostMapping("/follow/{userId}")
     public ResponseEntity<User> followUser(
             @AuthenticationPrincipal OAuth2User principal,
@@ -137,36 +157,43 @@ public class UserController {
     ) {
         String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
         if (providerId == null) {
-            System.out.println("No providerId found in principal");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        System.out.println("Attempting to follow user: " + userId + " by providerId: " + providerId);
-        User currentUser = userRepository.findByProviderId(providerId)
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
-
-        Optional<User> optionalTargetUser = userRepository.findById(userId);
-        if (optionalTargetUser.isEmpty()) {
-            System.out.println("Target user not found: " + userId);
-            return ResponseEntity.notFound().build();
+        try {
+            User currentUser = userService.followUser(providerId, userId);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return ResponseEntity.ok(currentUser);
+        } catch (ResponseStatusException e) {
+            return new ResponseEntity<>(null, e.getStatusCode());
         }
+    }
 
-        User targetUser = optionalTargetUser.get();
-
-        if (!currentUser.getFollowing().contains(userId)) {
-            currentUser.getFollowing().add(userId);
-            userRepository.save(currentUser);
-            targetUser.getFollowers().add(currentUser.getId());
-            userRepository.save(targetUser);
-            System.out.println("Successfully followed user: " + userId);
-        } else {
-            System.out.println("Already following user: " + userId);
+    // Follow several users at once (onboarding); body is a JSON array of user ids, at most 100
+    @PostMapping("/follow")
+    public ResponseEntity<User> followUsers(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestBody List<String> userIds
+    ) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        return ResponseEntity.ok(currentUser);
+        try {
+            User currentUser = userService.followUsers(providerId, userIds);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return ResponseEntity.ok(currentUser);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Unfollow a user
+    // Unfollow a user; unfollowing someone not followed is a no-op
     @DeleteMapping("/unfollow/{userId}")
     public ResponseEntity<User> unfollowUser(
             @AuthenticationPrincipal OAuth2User principal,
@@ -177,53 +204,86 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        User currentUser = userRepository.findByProviderId(providerId)
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
-
-        Optional<User> optionalTargetUser = userRepository.findById(userId);
-        if (optionalTargetUser.isEmpty()) {
-            return ResponseEntity.notFound().build();
+        User currentUser = userService.unfollowUser(providerId, userId);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        return ResponseEntity.ok(currentUser);
+    }
 
-        User targetUser = optionalTargetUser.get();
-
-        // Remove from following list
-        currentUser.getFollowing().remove(userId);
-        userRepository.save(currentUser);
+    // Whether the current user follows a user: { "following": true | false }
+    @GetMapping("/{userId}/follow-status")
+    public ResponseEntity<Map<String, Boolean>> getFollowStatus(
+            @AuthenticationPrincipal OAuth2User principal,
+            @PathVariable String userId
+    ) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(Map.of("following", userService.isFollowing(providerId, userId)));
+    }
 
-        // Remove from target user's followers list
-        targetUser.getFollowers().remove(currentUser.getId());
-        userRepository.save(targetUser);
+    // Which of the given users the current user follows: ?ids=a&ids=b, at most 100; returns the followed ids
+    @GetMapping("/me/followed")
+    public ResponseEntity<Set<String>> getFollowedAmong(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam List<String> ids
+    ) {
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        if (providerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
 
-        return ResponseEntity.ok(currentUser);
+        try {
+            return ResponseEntity.ok(userService.getFollowedAmong(providerId, ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Get user's followers
+    // A user's newest followers, at most 100; use /followers/page to see them all
     @GetMapping("/{userId}/followers")
-    public ResponseEntity<List<User>> getUserFollowers(@PathVariable String userId) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+    public ResponseEntity<List<AuthorSummary>> getUserFollowers(@PathVariable String userId) {
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.notFound().build();
         }
-
-        User user = optionalUser.get();
-        List<User> followers = userRepository.findAllById(user.getFollowers());
-
-        return ResponseEntity.ok(followers);
+        return ResponseEntity.ok(userService.getUserFollowers(userId));
     }
 
-    // Get user's following
+    // The users a user followed most recently, at most 100; use /following/page to see them all
     @GetMapping("/{userId}/following")
-    public ResponseEntity<List<User>> getUserFollowing(@PathVariable String userId) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+    public ResponseEntity<List<AuthorSummary>> getUserFollowing(@PathVariable String userId) {
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(userService.getUserFollowing(userId));
+    }
 
-        User user = optionalUser.get();
-        List<User> following = userRepository.findAllById(user.getFollowing());
+    // Keyset-paginated followers, newest follow first: { "items": [{ id, name, picture }], "nextCursor": "..." | null }
+    @GetMapping("/{userId}/followers/page")
+    public ResponseEntity<CursorPage<AuthorSummary>> getFollowersPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(userService.getFollowersPage(userId, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-        return ResponseEntity.ok(following);
+    // Keyset-paginated followed users, newest follow first
+    @GetMapping("/{userId}/following/page")
+    public ResponseEntity<CursorPage<AuthorSummary>> getFollowingPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(userService.getFollowingPage(userId, PageCursor.decode(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
 //    // Save a post
@@ -0,0 +1,45 @@
+package com.app.learnly.model;
+
+/**
+ * Lightweight author reference embedded in list responses instead of the
+ * full {@link User} with its saved-post array.
+ */
+public class AuthorSummary {
+
+    private String id;
+    private String name;
+    private String picture;
+
+    public AuthorSummary() {
+    }
+
+    public AuthorSummary(String id, String name, String picture) {
+        this.id = id;
+        this.name = name;
+        this.picture = picture;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPicture() {
+        return picture;
+    }
+
+    public void setPicture(String picture) {
+        this.picture = picture;
+    }
+}
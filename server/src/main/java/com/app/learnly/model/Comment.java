@@ -1,12 +1,17 @@
 package com.app.learnly.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "comments")
+// Top-level comments of a post in order; the post.$id prefix also serves per-post lookups and recounts
+@CompoundIndex(name = "post_parent_createdAt", def = "{'post.$id': 1, 'parentId': 1, 'createdAt': 1, '_id': 1}")
+@CompoundIndex(name = "post_createdAt", def = "{'post.$id': 1, 'createdAt': -1, '_id': -1}") // Latest comments of posts
+@CompoundIndex(name = "parent_createdAt", def = "{'parentId': 1, 'createdAt': 1, '_id': 1}") // Replies of a thread in order
 public class Comment {
 
     @Id
@@ -20,6 +25,10 @@ public class Comment {
     @DBRef
     private Post post;
 
+    private String parentId; // Top-level comment this replies to; null for a top-level comment
+
+    private long replyCount; // Denormalized, maintained with $inc by CommentService
+
     private Date createdAt;
 
     // Default constructor
@@ -66,6 +75,22 @@ public class Comment {
         this.post = post;
     }
 
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(long replyCount) {
+        this.replyCount = replyCount;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
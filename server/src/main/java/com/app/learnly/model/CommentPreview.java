@@ -0,0 +1,67 @@
+package com.app.learnly.model;
+
+import java.util.Date;
+
+/**
+ * Copy of a recent comment embedded in its post, so feed pages can show the
+ * latest comments without querying the comments collection.
+ */
+public class CommentPreview {
+
+    private String id;
+    private String content;
+    private String parentId;
+    private AuthorSummary user;
+    private Date createdAt;
+
+    public CommentPreview() {
+    }
+
+    public CommentPreview(String id, String content, String parentId, AuthorSummary user, Date createdAt) {
+        this.id = id;
+        this.content = content;
+        this.parentId = parentId;
+        this.user = user;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public AuthorSummary getUser() {
+        return user;
+    }
+
+    public void setUser(AuthorSummary user) {
+        this.user = user;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.learnly.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mongodb.DBRef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * Read model for comment listings: references stay unresolved and the author
+ * is filled in by a batched lookup.
+ */
+public class CommentView {
+
+    @Id
+    private String id;
+
+    private String content;
+
+    @JsonIgnore
+    @Field("user")
+    private DBRef userRef;
+
+    @JsonIgnore
+    @Field("post")
+    private DBRef postRef;
+
+    private String parentId;
+
+    private long replyCount;
+
+    @Transient
+    private AuthorSummary user;
+
+    private Date createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public DBRef getUserRef() {
+        return userRef;
+    }
+
+    public void setUserRef(DBRef userRef) {
+        this.userRef = userRef;
+    }
+
+    public DBRef getPostRef() {
+        return postRef;
+    }
+
+    public void setPostRef(DBRef postRef) {
+        this.postRef = postRef;
+    }
+
+    @JsonIgnore
+    public String getAuthorId() {
+        return userRef != null ? userRef.getId().toString() : null;
+    }
+
+    public String getPostId() {
+        return postRef != null ? postRef.getId().toString() : null;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(long replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public AuthorSummary getUser() {
+        return user;
+    }
+
+    public void setUser(AuthorSummary user) {
+        this.user = user;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
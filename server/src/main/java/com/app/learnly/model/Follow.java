@@ -0,0 +1,69 @@
+package com.app.learnly.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A follow edge: {@code followerId} follows {@code followeeId}. Edges live in
+ * their own collection so neither user document grows with the graph; the
+ * counts are denormalized on {@link User}.
+ */
+@Document(collection = "follows")
+@CompoundIndex(name = "followerId_followeeId", def = "{'followerId': 1, 'followeeId': 1}", unique = true) // One edge per pair
+@CompoundIndex(name = "followerId_createdAt", def = "{'followerId': 1, 'createdAt': -1, '_id': -1}") // Who a user follows, newest first
+@CompoundIndex(name = "followeeId_createdAt", def = "{'followeeId': 1, 'createdAt': -1, '_id': -1}") // A user's followers, newest first
+public class Follow {
+
+    @Id
+    private String id;
+
+    private String followerId;
+
+    private String followeeId;
+
+    private Date createdAt;
+
+    public Follow() {
+    }
+
+    public Follow(String followerId, String followeeId) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+        this.createdAt = new Date();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFollowerId() {
+        return followerId;
+    }
+
+    public void setFollowerId(String followerId) {
+        this.followerId = followerId;
+    }
+
+    public String getFolloweeId() {
+        return followeeId;
+    }
+
+    public void setFolloweeId(String followeeId) {
+        this.followeeId = followeeId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
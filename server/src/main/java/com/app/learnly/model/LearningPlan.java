@@ -9,7 +9,7 @@ import java.util.Date;
 import java.util.List;
 
 @Document(collection = "learning_plans")
-public class LearningPlan {
+public class LearningPlan implements Versioned {
 
     @Id
     private String id;
@@ -26,6 +26,9 @@ public class LearningPlan {
     private List<String> followers;
     private boolean isPublic = false;
 
+    private long version; // Bumped on every write, served as the ETag
+    private Date lastModified;
+
     public LearningPlan() {
         this.topics = new ArrayList<>();
         this.followers = new ArrayList<>();
@@ -185,4 +188,20 @@ public class LearningPlan {
             this.type = type;
         }
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}
@@ -0,0 +1,149 @@
+package com.app.learnly.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mongodb.DBRef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read model for learning plan listings. Like {@link PostView}, the owner
+ * reference is read as a raw {@link DBRef} and {@code user} is filled in
+ * afterwards by a batched lookup; the owner card of a plan shows the email,
+ * so it is a {@link UserView} rather than an {@link AuthorSummary}.
+ */
+public class LearningPlanView {
+
+    @Id
+    private String id;
+
+    @JsonIgnore
+    @Field("user")
+    private DBRef userRef;
+
+    @Transient
+    private UserView user;
+
+    private String title;
+    private String description;
+    private List<LearningPlan.Topic> topics;
+    private Date createdAt;
+    private Date updatedAt;
+    private Date completionDate;
+    private List<String> followers;
+    private boolean isPublic;
+    private long version;
+    private Date lastModified;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public DBRef getUserRef() {
+        return userRef;
+    }
+
+    public void setUserRef(DBRef userRef) {
+        this.userRef = userRef;
+    }
+
+    @JsonIgnore
+    public String getOwnerId() {
+        return userRef != null ? userRef.getId().toString() : null;
+    }
+
+    public UserView getUser() {
+        return user;
+    }
+
+    public void setUser(UserView user) {
+        this.user = user;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<LearningPlan.Topic> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(List<LearningPlan.Topic> topics) {
+        this.topics = topics;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getCompletionDate() {
+        return completionDate;
+    }
+
+    public void setCompletionDate(Date completionDate) {
+        this.completionDate = completionDate;
+    }
+
+    public List<String> getFollowers() {
+        return followers;
+    }
+
+    public void setFollowers(List<String> followers) {
+        this.followers = followers;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public void setIsPublic(boolean isPublic) {
+        this.isPublic = isPublic;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}
@@ -1,22 +1,29 @@
 package com.app.learnly.model;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
+/**
+ * A user's like of a post. The user and post are plain ids rather than
+ * DBRefs, so a like can be written and removed with a single command and
+ * looked up without resolving references.
+ */
 @Document(collection = "likes")
+// One like per user and post, also serving per-post lookups and recounts; sparse so
+// likes not yet migrated from DBRefs (see LikeMigrationService) are left out
+@CompoundIndex(name = "postId_userId", def = "{'postId': 1, 'userId': 1}", unique = true, sparse = true)
+@CompoundIndex(name = "postId_createdAt", def = "{'postId': 1, 'createdAt': -1, '_id': -1}") // Newest likers first
 public class Like {
 
     @Id
     private String id;
 
-    @DBRef
-    private User user;
+    private String userId;
 
-    @DBRef
-    private Post post;
+    private String postId;
 
     private Date createdAt;
 
@@ -24,9 +31,9 @@ public class Like {
     public Like() {}
 
     // Constructor
-    public Like(User user, Post post) {
-        this.user = user;
-        this.post = post;
+    public Like(String userId, String postId) {
+        this.userId = userId;
+        this.postId = postId;
         this.createdAt = new Date();
     }
 
@@ -39,20 +46,20 @@ public class Like {
         this.id = id;
     }
 
-    public User getUser() {
-        return user;
+    public String getUserId() {
+        return userId;
     }
 
-    public void setUser(User user) {
-        this.user = user;
+    public void setUserId(String userId) {
+        this.userId = userId;
     }
 
-    public Post getPost() {
-        return post;
+    public String getPostId() {
+        return postId;
     }
 
-    public void setPost(Post post) {
-        this.post = post;
+    public void setPostId(String postId) {
+        this.postId = postId;
     }
 
     public Date getCreatedAt() {
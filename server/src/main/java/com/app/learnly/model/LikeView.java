@@ -0,0 +1,71 @@
+package com.app.learnly.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+
+import java.util.Date;
+
+/**
+ * Read model for like listings: the liker is filled in by a batched lookup.
+ */
+public class LikeView {
+
+    @Id
+    private String id;
+
+    @JsonIgnore
+    private String userId;
+
+    private String postId;
+
+    @Transient
+    private AuthorSummary user;
+
+    private Date createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    @JsonIgnore
+    public String getAuthorId() {
+        return userId;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public AuthorSummary getUser() {
+        return user;
+    }
+
+    public void setUser(AuthorSummary user) {
+        this.user = user;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.app.learnly.model;
+
+/**
+ * A resized, recompressed copy of an image in {@code Post.mediaUrls},
+ * produced in the background by {@code MediaDerivativeService}.
+ */
+public class MediaVariant {
+
+    private String sourceUrl;
+    private String url;
+    private int width;
+    private int height;
+
+    public MediaVariant() {
+    }
+
+    public MediaVariant(String sourceUrl, String url, int width, int height) {
+        this.sourceUrl = sourceUrl;
+        this.url = url;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public void setSourceUrl(String sourceUrl) {
+        this.sourceUrl = sourceUrl;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+}
@@ -1,6 +1,7 @@
 package com.app.learnly.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -8,7 +9,10 @@ import java.util.Date;
 import java.util.List;
 
 @Document(collection = "posts")
-public class Post {
+@CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}") // Keyset paging, newest first
+@CompoundIndex(name = "user_createdAt", def = "{'user.$id': 1, 'createdAt': -1, '_id': -1}") // Per-author recent posts
+@CompoundIndex(name = "tags_createdAt", def = "{'tags': 1, 'createdAt': -1, '_id': -1}") // Multikey tag index, newest first
+public class Post implements Versioned {
 
     @Id
     private String id;
@@ -18,12 +22,21 @@ public class Post {
     private List<String> mediaUrls; // URLs of the media files
     private List<String> fileTypes; // Types of the media files (e.g., "image", "video")
     private List<String> tags; // Tags for categorization
+    private List<MediaVariant> mediaVariants; // Resized copies of the images, filled in asynchronously
+    private List<String> thumbnailUrls; // Smallest variant per media URL, index-aligned with mediaUrls
+    private List<CommentPreview> recentComments; // Newest first, capped; maintained by CommentService
 
     @DBRef
     private User user; // Reference to the User document
 
     private Date createdAt; // Timestamp for when the post was created
 
+    private long likeCount; // Denormalized, maintained with $inc by LikeService
+    private long commentCount; // Denormalized, maintained with $inc by CommentService
+
+    private long version; // Bumped on every write, served as the ETag
+    private Date lastModified;
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -65,6 +78,30 @@ public class Post {
         this.fileTypes = fileTypes;
     }
 
+    public List<MediaVariant> getMediaVariants() {
+        return mediaVariants;
+    }
+
+    public void setMediaVariants(List<MediaVariant> mediaVariants) {
+        this.mediaVariants = mediaVariants;
+    }
+
+    public List<CommentPreview> getRecentComments() {
+        return recentComments;
+    }
+
+    public void setRecentComments(List<CommentPreview> recentComments) {
+        this.recentComments = recentComments;
+    }
+
+    public List<String> getThumbnailUrls() {
+        return thumbnailUrls;
+    }
+
+    public void setThumbnailUrls(List<String> thumbnailUrls) {
+        this.thumbnailUrls = thumbnailUrls;
+    }
+
     public List<String> getTags() {
         return tags;
     }
@@ -88,4 +125,36 @@ public class Post {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}
@@ -0,0 +1,37 @@
+package com.app.learnly.model;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get of posts: the found posts in request order, and the
+ * requested ids that do not exist (never created or deleted).
+ */
+public class PostBatch {
+
+    private List<PostView> items;
+    private List<String> missingIds;
+
+    public PostBatch() {
+    }
+
+    public PostBatch(List<PostView> items, List<String> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    public List<PostView> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PostView> items) {
+        this.items = items;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,149 @@
+package com.app.learnly.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Pending cleanup of the data that referenced a deleted post: its likes,
+ * comments, saved-post references and timeline entries. Written when the
+ * post is deleted and worked off in the background by {@code PostCleanupService}.
+ * The document id is the deleted post's id.
+ */
+@Document(collection = "post_deletions")
+@CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class PostDeletion {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String postId;
+
+    private String authorId;
+    private String status;
+    private int attempts;
+    private Date nextAttemptAt;
+    private Date leaseUntil;
+    private Date createdAt;
+    // Finished jobs expire after a week
+    @Indexed(expireAfter = "7d")
+    private Date completedAt;
+    private long likesDeleted;
+    private long commentsDeleted;
+    private long savedReferencesRemoved;
+    private long timelinesUpdated;
+    private String lastError;
+
+    public PostDeletion() {
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public long getLikesDeleted() {
+        return likesDeleted;
+    }
+
+    public void setLikesDeleted(long likesDeleted) {
+        this.likesDeleted = likesDeleted;
+    }
+
+    public long getCommentsDeleted() {
+        return commentsDeleted;
+    }
+
+    public void setCommentsDeleted(long commentsDeleted) {
+        this.commentsDeleted = commentsDeleted;
+    }
+
+    public long getSavedReferencesRemoved() {
+        return savedReferencesRemoved;
+    }
+
+    public void setSavedReferencesRemoved(long savedReferencesRemoved) {
+        this.savedReferencesRemoved = savedReferencesRemoved;
+    }
+
+    public long getTimelinesUpdated() {
+        return timelinesUpdated;
+    }
+
+    public void setTimelinesUpdated(long timelinesUpdated) {
+        this.timelinesUpdated = timelinesUpdated;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
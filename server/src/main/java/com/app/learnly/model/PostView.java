@@ -0,0 +1,150 @@
+package com.app.learnly.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mongodb.DBRef;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read model for post listings. The author reference is read as a raw
+ * {@link DBRef} so no user is fetched per row; {@code user} is filled in
+ * afterwards by a batched lookup.
+ */
+public class PostView {
+
+    @Id
+    private String id;
+
+    private String title;
+    private String content;
+    private List<String> mediaUrls;
+    private List<String> fileTypes;
+    private List<String> thumbnailUrls;
+    private List<CommentPreview> recentComments;
+    private List<String> tags;
+
+    @JsonIgnore
+    @Field("user")
+    private DBRef userRef;
+
+    @Transient
+    private AuthorSummary user;
+
+    private Date createdAt;
+    private long likeCount;
+    private long commentCount;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public List<String> getMediaUrls() {
+        return mediaUrls;
+    }
+
+    public void setMediaUrls(List<String> mediaUrls) {
+        this.mediaUrls = mediaUrls;
+    }
+
+    public List<String> getFileTypes() {
+        return fileTypes;
+    }
+
+    public void setFileTypes(List<String> fileTypes) {
+        this.fileTypes = fileTypes;
+    }
+
+    public List<CommentPreview> getRecentComments() {
+        return recentComments;
+    }
+
+    public void setRecentComments(List<CommentPreview> recentComments) {
+        this.recentComments = recentComments;
+    }
+
+    // Index-aligned with mediaUrls; null until the image variants have been generated
+    public List<String> getThumbnailUrls() {
+        return thumbnailUrls;
+    }
+
+    public void setThumbnailUrls(List<String> thumbnailUrls) {
+        this.thumbnailUrls = thumbnailUrls;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public DBRef getUserRef() {
+        return userRef;
+    }
+
+    public void setUserRef(DBRef userRef) {
+        this.userRef = userRef;
+    }
+
+    @JsonIgnore
+    public String getAuthorId() {
+        return userRef != null ? userRef.getId().toString() : null;
+    }
+
+    public AuthorSummary getUser() {
+        return user;
+    }
+
+    public void setUser(AuthorSummary user) {
+        this.user = user;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+}
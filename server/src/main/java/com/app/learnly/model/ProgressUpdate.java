@@ -7,7 +7,7 @@ import java.util.Date;
 import java.util.List;
 
 @Document(collection = "progress_updates")
-public class ProgressUpdate {
+public class ProgressUpdate implements Versioned {
 
     @Id
     private String id;
@@ -20,6 +20,9 @@ public class ProgressUpdate {
     private Date createdAt;
     private Date updatedAt;
 
+    private long version; // Bumped on every write, served as the ETag
+    private Date lastModified;
+
     public ProgressUpdate() {
     }
 
@@ -95,4 +98,20 @@ public class ProgressUpdate {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -0,0 +1,38 @@
+package com.app.learnly.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Number of posts carrying a tag, maintained incrementally as posts are
+ * created, retagged and deleted. The document id is the tag itself.
+ */
+@Document(collection = "tag_stats")
+public class TagStat {
+
+    @Id
+    private String tag;
+
+    @Indexed
+    private long postCount;
+
+    public TagStat() {
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public long getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(long postCount) {
+        this.postCount = postCount;
+    }
+}
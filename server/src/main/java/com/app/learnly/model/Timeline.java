@@ -0,0 +1,79 @@
+package com.app.learnly.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Materialized home timeline of a user: a bounded, newest-first list of post
+ * references pushed in by fan-out-on-write. The document id is the owner's user id.
+ */
+@Document(collection = "timelines")
+public class Timeline {
+
+    @Id
+    private String id;
+
+    private List<Entry> entries = new ArrayList<>();
+
+    public Timeline() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static class Entry {
+        private String postId;
+        private String authorId;
+        private Date createdAt;
+
+        public Entry() {
+        }
+
+        public Entry(String postId, String authorId, Date createdAt) {
+            this.postId = postId;
+            this.authorId = authorId;
+            this.createdAt = createdAt;
+        }
+
+        public String getPostId() {
+            return postId;
+        }
+
+        public void setPostId(String postId) {
+            this.postId = postId;
+        }
+
+        public String getAuthorId() {
+            return authorId;
+        }
+
+        public void setAuthorId(String authorId) {
+            this.authorId = authorId;
+        }
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
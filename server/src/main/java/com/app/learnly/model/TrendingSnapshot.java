@@ -0,0 +1,84 @@
+package com.app.learnly.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Persisted state of one trending-tags window so a restart does not lose it.
+ * Counts are stored scaled to {@code landmark}; the document id is the window name.
+ */
+@Document(collection = "trending_snapshots")
+public class TrendingSnapshot {
+
+    @Id
+    private String window;
+
+    private long landmark;
+    private int depth;
+    private int width;
+    private double[] cells;
+    private List<TrendingTag> topK;
+    private Date savedAt;
+
+    public TrendingSnapshot() {
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public long getLandmark() {
+        return landmark;
+    }
+
+    public void setLandmark(long landmark) {
+        this.landmark = landmark;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public double[] getCells() {
+        return cells;
+    }
+
+    public void setCells(double[] cells) {
+        this.cells = cells;
+    }
+
+    public List<TrendingTag> getTopK() {
+        return topK;
+    }
+
+    public void setTopK(List<TrendingTag> topK) {
+        this.topK = topK;
+    }
+
+    public Date getSavedAt() {
+        return savedAt;
+    }
+
+    public void setSavedAt(Date savedAt) {
+        this.savedAt = savedAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.app.learnly.model;
+
+public class TrendingTag {
+
+    private String tag;
+    private double score;
+
+    public TrendingTag() {
+    }
+
+    public TrendingTag(String tag, double score) {
+        this.tag = tag;
+        this.score = score;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
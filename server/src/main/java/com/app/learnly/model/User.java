@@ -1,29 +1,50 @@
 package com.app.learnly.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Document(collection = "users")
-public class User {
+@CompoundIndex(name = "nameLower__id", def = "{'nameLower': 1, '_id': 1}") // Browsing users by name
+@CompoundIndex(name = "nameTokens_nameLower", def = "{'nameTokens': 1, 'nameLower': 1, '_id': 1}") // Name token prefix search
+public class User implements Versioned {
     @Id
     private String id;
 
     @Indexed(unique = true)
     private String email;
 
+    @Indexed
     private String providerId;
     private String provider;
     private String name;
     private String picture;
     private String bio;
-    private List<String> followers = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
+
+    // Search keys derived from name and email by SearchKeys, never sent to clients
+    @JsonIgnore
+    private String nameLower;
+    @JsonIgnore
+    private List<String> nameTokens;
+    @JsonIgnore
+    @Indexed
+    private String emailLower;
+
+    @Indexed // Finds the few pull-mode authors for home timelines
+    private long followerCount; // Denormalized from the follows collection, maintained with $inc by FollowService
+    private long followingCount;
+    @Indexed
     private List<String> savedPosts = new ArrayList<>();
 
+    private long version; // Bumped on every write, served as the ETag
+    private Date lastModified;
+
     // Constructors
     public User() {
     }
@@ -84,20 +105,44 @@ public class User {
         this.bio = bio;
     }
 
-    public List<String> getFollowers() {
-        return followers;
+    public String getNameLower() {
+        return nameLower;
+    }
+
+    public void setNameLower(String nameLower) {
+        this.nameLower = nameLower;
+    }
+
+    public List<String> getNameTokens() {
+        return nameTokens;
+    }
+
+    public void setNameTokens(List<String> nameTokens) {
+        this.nameTokens = nameTokens;
+    }
+
+    public String getEmailLower() {
+        return emailLower;
+    }
+
+    public void setEmailLower(String emailLower) {
+        this.emailLower = emailLower;
+    }
+
+    public long getFollowerCount() {
+        return followerCount;
     }
 
-    public void setFollowers(List<String> followers) {
-        this.followers = followers;
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
     }
 
-    public List<String> getFollowing() {
-        return following;
+    public long getFollowingCount() {
+        return followingCount;
     }
 
-    public void setFollowing(List<String> following) {
-        this.following = following;
+    public void setFollowingCount(long followingCount) {
+        this.followingCount = followingCount;
     }
 
     public List<String> getSavedPosts() {
@@ -107,4 +152,20 @@ public class User {
     public void setSavedPosts(List<String> savedPosts) {
         this.savedPosts = savedPosts;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
 }
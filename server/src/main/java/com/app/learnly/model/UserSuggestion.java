@@ -0,0 +1,45 @@
+package com.app.learnly.model;
+
+/**
+ * A suggested user to follow, with the score it was ranked by and how many
+ * of the caller's followed users already follow it.
+ */
+public class UserSuggestion {
+
+    private AuthorSummary user;
+    private double score;
+    private int mutualFollows;
+
+    public UserSuggestion() {
+    }
+
+    public UserSuggestion(AuthorSummary user, double score, int mutualFollows) {
+        this.user = user;
+        this.score = score;
+        this.mutualFollows = mutualFollows;
+    }
+
+    public AuthorSummary getUser() {
+        return user;
+    }
+
+    public void setUser(AuthorSummary user) {
+        this.user = user;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public int getMutualFollows() {
+        return mutualFollows;
+    }
+
+    public void setMutualFollows(int mutualFollows) {
+        this.mutualFollows = mutualFollows;
+    }
+}
@@ -0,0 +1,20 @@
+package com.app.learnly.model;
+
+import java.util.Date;
+
+/**
+ * A document with a version stamp. The version is bumped and lastModified
+ * set on every write, either by {@code VersionStampListener} when the whole
+ * document is saved or with {@code VersionStamps.touch} in targeted updates.
+ * Conditional GETs compare it against {@code If-None-Match}/{@code If-Modified-Since}.
+ */
+public interface Versioned {
+
+    long getVersion();
+
+    void setVersion(long version);
+
+    Date getLastModified();
+
+    void setLastModified(Date lastModified);
+}
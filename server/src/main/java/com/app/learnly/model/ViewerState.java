@@ -0,0 +1,55 @@
+package com.app.learnly.model;
+
+/**
+ * What the calling user has done with a post, for drawing like, save and
+ * edit controls without downloading the post's likes.
+ */
+public class ViewerState {
+
+    private String postId;
+    private boolean liked;
+    private boolean saved;
+    private boolean authored;
+
+    public ViewerState() {
+    }
+
+    public ViewerState(String postId, boolean liked, boolean saved, boolean authored) {
+        this.postId = postId;
+        this.liked = liked;
+        this.saved = saved;
+        this.authored = authored;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public void setLiked(boolean liked) {
+        this.liked = liked;
+    }
+
+    public boolean isSaved() {
+        return saved;
+    }
+
+    public void setSaved(boolean saved) {
+        this.saved = saved;
+    }
+
+    public boolean isAuthored() {
+        return authored;
+    }
+
+    public void setAuthored(boolean authored) {
+        this.authored = authored;
+    }
+}
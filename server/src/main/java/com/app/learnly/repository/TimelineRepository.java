@@ -0,0 +1,9 @@
+package com.app.learnly.repository;
+
+import com.app.learnly.model.Timeline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TimelineRepository extends MongoRepository<Timeline, String> {
+}
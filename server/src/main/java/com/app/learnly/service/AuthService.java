@@ -2,7 +2,14 @@ package com.app.learnly.service;
 
 import com.app.learnly.model.User;
 import com.app.learnly.repository.UserRepository;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.SearchKeys;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -18,6 +25,9 @@ public class AuthService extends DefaultOAuth2UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
         OAuth2User oAuth2User = super.loadUser(userRequest);
@@ -41,9 +51,9 @@ public class AuthService extends DefaultOAuth2UserService {
             Optional<User> existingUserByEmail = userRepository.findByEmail(email);
             if (existingUserByEmail.isPresent()) {
                 // Update existing user with new provider info
-                user = existingUserByEmail.get();
-                user.setProviderId(providerId);
-                user.setProvider(provider);
+                updateUser(byId(existingUserByEmail.get().getId()), new Update()
+                        .set("providerId", providerId)
+                        .set("provider", provider));
             } else {
                 // Create new user
                 user = new User();
@@ -52,22 +62,40 @@ public class AuthService extends DefaultOAuth2UserService {
                 user.setName(name);
                 user.setEmail(email);
                 user.setPicture(picture);
-                user.setFollowers(new ArrayList<>());
-                user.setFollowing(new ArrayList<>());
                 user.setSavedPosts(new ArrayList<>());
+                UserSearchService.applyKeys(user);
+                userRepository.save(user);
             }
         } else {
-            // Update syncable fields for existing user
-            user.setEmail(email);
-            if (user.getPicture() == null || user.getPicture().isEmpty()) {
-                user.setPicture(picture);
+            // Sync only the fields that changed, guarded by the values read; an unchanged login writes nothing
+            Criteria criteria = byId(user.getId());
+            Update update = new Update();
+            if (email != null && !email.equals(user.getEmail())) {
+                criteria.and("email").is(user.getEmail());
+                update.set("email", email).set("emailLower", SearchKeys.normalizeEmail(email));
+            }
+            boolean hasPicture = user.getPicture() != null && !user.getPicture().isEmpty();
+            if (!hasPicture && picture != null && !picture.isEmpty()) {
+                criteria.and("picture").is(user.getPicture());
+                update.set("picture", picture);
+            }
+            if (!update.getUpdateObject().isEmpty()) {
+                updateUser(criteria, update);
             }
         }
 
-        userRepository.save(user);
         return oAuth2User;
     }
 
+    // Targeted, so a login never overwrites counts or saved posts written concurrently
+    private void updateUser(Criteria criteria, Update update) {
+        mongoTemplate.updateFirst(Query.query(criteria), VersionStamps.touch(update), User.class);
+    }
+
+    private static Criteria byId(String userId) {
+        return Criteria.where("_id").is(MongoIds.toObjectId(userId));
+    }
+
     public Optional<User> findByProviderId(String providerId) {
         return userRepository.findByProviderId(providerId);
     }
@@ -1,23 +1,52 @@
 package com.app.learnly.service;
 
+import com.app.learnly.model.AuthorSummary;
 import com.app.learnly.model.Comment;
+import com.app.learnly.model.CommentPreview;
+import com.app.learnly.model.CommentView;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.Post;
 import com.app.learnly.model.User;
 import com.app.learnly.repository.CommentRepository;
 import com.app.learnly.repository.PostRepository;
 import com.app.learnly.repository.UserRepository;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CommentService {
 
+    private static final Logger log = LoggerFactory.getLogger(CommentService.class);
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -27,6 +56,25 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private TrendingTagService trendingTagService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static final String COMMENTS_COLLECTION = "comments";
+
+    // Comments embedded in each post for feed previews
+    public static final int PREVIEW_SIZE = 3;
+
+    public static final int MAX_LATEST_PER_POST = 10;
+
     public Comment createComment(String postId, Comment comment, OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
@@ -43,17 +91,94 @@ public class CommentService {
         Post post = postOptional.orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
 
+        // Threads are one level deep: a reply to a reply joins the thread of its top-level comment
+        String threadId = null;
+        if (comment.getParentId() != null) {
+            Query parentQuery = Query.query(Criteria.where("_id").is(MongoIds.toObjectId(comment.getParentId())));
+            parentQuery.fields().include("post", "parentId");
+            CommentView parent = mongoTemplate.findOne(parentQuery, CommentView.class, COMMENTS_COLLECTION);
+            if (parent == null || !postId.equals(parent.getPostId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parent comment not found on this post");
+            }
+            threadId = parent.getParentId() != null ? parent.getParentId() : parent.getId();
+        }
+
         comment.setUser(user);
         comment.setPost(post);
+        comment.setParentId(threadId);
+        comment.setReplyCount(0);
         comment.setCreatedAt(new java.util.Date());
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        engagementCounterService.adjustCommentCount(postId, 1);
+        if (threadId != null) {
+            adjustReplyCount(threadId, 1);
+        }
+        addPreview(postId, savedComment, user);
+        trendingTagService.recordComment(post.getTags());
+        return savedComment;
     }
 
-    public List<Comment> getCommentsByPostId(String postId) {
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        return commentRepository.findByPost(post);
+    public List<CommentView> getCommentsByPostId(String postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        Query query = new Query(Criteria.where("post.$id").is(MongoIds.toObjectId(postId)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        return hydrationService.hydrateComments(mongoTemplate.find(query, CommentView.class, COMMENTS_COLLECTION));
+    }
+
+    /**
+     * Pages through the top-level comments of a post, oldest first. The page
+     * is one query on the (post, parentId, createdAt) index plus one batched
+     * author lookup.
+     *
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size, clamped to the allowed range.
+     * @throws ResponseStatusException 404 if the post does not exist.
+     */
+    public CursorPage<CommentView> getTopLevelComments(String postId, PageCursor after, int limit) {
+        Criteria criteria = Criteria.where("post.$id").is(MongoIds.toObjectId(postId)).and("parentId").is(null);
+        CursorPage<CommentView> page = readPage(criteria, after, limit);
+        // Only an empty first page needs to tell a missing post from one without comments
+        if (page.getItems().isEmpty() && after == null && !postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        return page;
+    }
+
+    /**
+     * Pages through the replies to a top-level comment, oldest first.
+     *
+     * @throws ResponseStatusException 404 if the comment does not exist.
+     */
+    public CursorPage<CommentView> getReplies(String commentId, PageCursor after, int limit) {
+        CursorPage<CommentView> page = readPage(Criteria.where("parentId").is(commentId), after, limit);
+        if (page.getItems().isEmpty() && after == null && !commentRepository.existsById(commentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found");
+        }
+        return page;
+    }
+
+    private CursorPage<CommentView> readPage(Criteria criteria, PageCursor after, int limit) {
+        int pageSize = PostService.clampPageSize(limit);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.newerThan("createdAt"));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                .limit(pageSize + 1);
+        List<CommentView> comments = mongoTemplate.find(query, CommentView.class, COMMENTS_COLLECTION);
+
+        boolean hasMore = comments.size() > pageSize;
+        if (hasMore) {
+            comments = comments.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            CommentView last = comments.get(comments.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(hydrationService.hydrateComments(comments), nextCursor);
     }
 
     public Comment updateComment(String commentId, Comment updatedComment, OAuth2User principal) {
@@ -78,8 +203,15 @@ public class CommentService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Unauthorized to update this comment");
         }
 
+        // Only the content is written, so concurrent reply count updates are kept
         comment.setContent(updatedComment.getContent());
-        return commentRepository.save(comment);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(commentId))),
+                new Update().set("content", comment.getContent()), COMMENTS_COLLECTION);
+        Query previewQuery = Query.query(Criteria.where("_id").is(comment.getPost().getId())
+                .and("recentComments.id").is(commentId));
+        mongoTemplate.updateFirst(previewQuery,
+                VersionStamps.touch(new Update().set("recentComments.$.content", comment.getContent())), Post.class);
+        return comment;
     }
 
     public void deleteComment(String commentId, OAuth2User principal) {
@@ -105,5 +237,152 @@ public class CommentService {
         }
 
         commentRepository.deleteById(commentId);
+        long deleted = 1;
+        if (comment.getParentId() != null) {
+            adjustReplyCount(comment.getParentId(), -1);
+        } else if (comment.getReplyCount() > 0) {
+            // A thread goes with its top-level comment
+            deleted += mongoTemplate.remove(Query.query(Criteria.where("parentId").is(commentId)),
+                    COMMENTS_COLLECTION).getDeletedCount();
+        }
+        engagementCounterService.adjustCommentCount(comment.getPost().getId(), -deleted);
+        // Refill only if a deleted comment was shown; deleted replies are only known by count
+        if (deleted > 1 || isPreviewed(comment.getPost().getId(), commentId)) {
+            refillPreviews(comment.getPost().getId());
+        }
+    }
+
+    /**
+     * Returns the latest comments of each of the given posts, newest first,
+     * with one aggregation and one batched author lookup.
+     *
+     * @param postIds Post ids, at most {@link PostService#MAX_BATCH_IDS}.
+     * @param limit Comments per post, clamped to 1..{@link #MAX_LATEST_PER_POST}.
+     * @return Comments keyed by post id; posts without comments are absent.
+     * @throws IllegalArgumentException if no ids or too many ids are given.
+     */
+    public Map<String, List<CommentView>> getLatestComments(List<String> postIds, int limit) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (postIds != null) {
+            postIds.stream().filter(id -> id != null && !id.isBlank()).forEach(distinct::add);
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one post id is required");
+        }
+        if (distinct.size() > PostService.MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Too many post ids");
+        }
+        Map<String, List<CommentView>> latest = latestByPost(distinct, Math.max(1, Math.min(limit, MAX_LATEST_PER_POST)));
+
+        // Request order
+        Map<String, List<CommentView>> ordered = new LinkedHashMap<>();
+        for (String id : distinct) {
+            if (latest.containsKey(id)) {
+                ordered.put(id, latest.get(id));
+            }
+        }
+        return ordered;
+    }
+
+    // The newest comments of each post, hydrated, from one aggregation; posts without comments are absent
+    private Map<String, List<CommentView>> latestByPost(Collection<String> postIds, int perPost) {
+        // post.$id cannot be used as a field path, hence $getField
+        AggregationOperation groupLatest = context -> new Document("$group", new Document("_id",
+                new Document("$getField", new Document("field", new Document("$literal", "$id")).append("input", "$post")))
+                .append("comments", new Document("$topN", new Document("n", perPost)
+                        .append("sortBy", new Document("createdAt", -1).append("_id", -1))
+                        .append("output", "$$ROOT"))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("post.$id").in(MongoIds.toObjectIds(postIds))),
+                groupLatest);
+
+        Map<String, List<CommentView>> latest = new LinkedHashMap<>();
+        List<CommentView> all = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, COMMENTS_COLLECTION, Document.class)) {
+            List<CommentView> comments = new ArrayList<>();
+            for (Document doc : group.getList("comments", Document.class)) {
+                comments.add(mongoTemplate.getConverter().read(CommentView.class, doc));
+            }
+            latest.put(group.get("_id").toString(), comments);
+            all.addAll(comments);
+        }
+        hydrationService.hydrateComments(all);
+        return latest;
+    }
+
+    /**
+     * Fills in the comment previews of posts written before they were kept,
+     * in the background after startup, one aggregation per batch of posts.
+     * A post that got a preview from a new comment meanwhile is left alone.
+     */
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPreviews() {
+        long start = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("recentComments").exists(false)).limit(PostService.MAX_BATCH_IDS);
+        query.fields().include("_id");
+        int count = 0;
+        try {
+            List<Document> batch;
+            while (!(batch = mongoTemplate.find(query, Document.class, PostService.POSTS_COLLECTION)).isEmpty()) {
+                List<String> postIds = batch.stream().map(doc -> doc.get("_id").toString()).toList();
+                Map<String, List<CommentView>> latest = latestByPost(postIds, PREVIEW_SIZE);
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                for (String postId : postIds) {
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(postId))
+                                    .and("recentComments").exists(false)),
+                            VersionStamps.touch(new Update().set("recentComments",
+                                    toPreviews(latest.getOrDefault(postId, List.of())))));
+                }
+                bulk.execute();
+                count += batch.size();
+            }
+            if (count > 0) {
+                log.info("Added comment previews to {} posts in {} ms", count, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            log.error("Comment preview backfill failed after {} posts; it resumes on the next start", count, e);
+        }
+    }
+
+    private static List<CommentPreview> toPreviews(List<CommentView> comments) {
+        List<CommentPreview> previews = new ArrayList<>(comments.size());
+        for (CommentView comment : comments) {
+            previews.add(new CommentPreview(comment.getId(), comment.getContent(), comment.getParentId(),
+                    comment.getUser(), comment.getCreatedAt()));
+        }
+        return previews;
+    }
+
+    private void addPreview(String postId, Comment comment, User author) {
+        CommentPreview preview = new CommentPreview(comment.getId(), comment.getContent(), comment.getParentId(),
+                new AuthorSummary(author.getId(), author.getName(), author.getPicture()), comment.getCreatedAt());
+        Update update = new Update().push("recentComments").atPosition(0).slice(PREVIEW_SIZE).each(preview);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)), VersionStamps.touch(update), Post.class);
+    }
+
+    private boolean isPreviewed(String postId, String commentId) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(postId).and("recentComments.id").is(commentId)),
+                Post.class);
+    }
+
+    // Rebuilds the previews from the comments collection after a shown comment was deleted
+    private void refillPreviews(String postId) {
+        Query query = Query.query(Criteria.where("post.$id").is(MongoIds.toObjectId(postId)))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(PREVIEW_SIZE);
+        List<CommentView> comments = hydrationService.hydrateComments(
+                mongoTemplate.find(query, CommentView.class, COMMENTS_COLLECTION));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)),
+                VersionStamps.touch(new Update().set("recentComments", toPreviews(comments))), Post.class);
+    }
+
+    // Decrements never take the count below zero
+    private void adjustReplyCount(String commentId, long delta) {
+        Criteria criteria = Criteria.where("_id").is(MongoIds.toObjectId(commentId));
+        if (delta < 0) {
+            criteria = criteria.and("replyCount").gte(-delta);
+        }
+        mongoTemplate.updateFirst(Query.query(criteria), new Update().inc("replyCount", delta), COMMENTS_COLLECTION);
     }
-}
\ No newline at end of file
+}
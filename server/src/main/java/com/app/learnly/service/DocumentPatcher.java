@@ -0,0 +1,187 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Versioned;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.VersionStamps;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies field-level changes to a {@link Versioned} document as one
+ * {@code findAndModify} with {@code $set}/{@code $unset}, instead of loading,
+ * mutating and saving the whole document. The write can be guarded by an
+ * access criterion (e.g. ownership) and by the version the client last saw.
+ */
+@Service
+public class DocumentPatcher {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The document after the patch, and the previous values of the fields
+     * that were changed, for callers that maintain derived data.
+     */
+    public record Result<T>(T document, Map<String, Object> previousValues) {
+    }
+
+    /**
+     * @param type The document class.
+     * @param id The document ID.
+     * @param access Extra criterion the document must match, e.g. its owner; null for none.
+     * @param changes JSON property name to new value; a null value removes the field.
+     * @param patchable JSON property names the caller may change, mapped to document field names.
+     * @param alsoSet Document fields always set by the server, e.g. updatedAt.
+     * @param expectedVersion The version the client based its changes on, or null to skip the check.
+     * @return The patched document and the previous values of the changed fields.
+     * @throws IllegalArgumentException if a property is not patchable or a value has the wrong type.
+     * @throws ResponseStatusException 404 if there is no such document, 412 if the version does
+     *                                 not match, 403 if the access criterion does not match.
+     */
+    public <T extends Versioned> Result<T> patch(Class<T> type, String id, Criteria access,
+                                                 Map<String, Object> changes, Map<String, String> patchable,
+                                                 Map<String, Object> alsoSet, Long expectedVersion) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No changes");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String field = patchable.get(change.getKey());
+            if (field == null) {
+                throw new IllegalArgumentException("Field cannot be changed: " + change.getKey());
+            }
+            values.put(field, convert(type, field, change.getValue()));
+        }
+        values.putAll(alsoSet);
+
+        Update update = new Update();
+        values.forEach((field, value) -> {
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        });
+        VersionStamps.touch(update);
+
+        T before = mongoTemplate.findAndModify(Query.query(guard(id, access, expectedVersion)), update,
+                FindAndModifyOptions.options().returnNew(false), type);
+        if (before == null) {
+            throw failure(type, id, expectedVersion);
+        }
+
+        // Apply the same changes to the returned copy rather than reading the document again
+        DirectFieldAccessor accessor = new DirectFieldAccessor(before);
+        Map<String, Object> previousValues = new HashMap<>();
+        values.forEach((field, value) -> {
+            previousValues.put(field, accessor.getPropertyValue(field));
+            accessor.setPropertyValue(field, value);
+        });
+        before.setVersion(before.getVersion() + 1);
+        before.setLastModified(new Date());
+        return new Result<>(before, previousValues);
+    }
+
+    private static Criteria guard(String id, Criteria access, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(MongoIds.toObjectId(id));
+        if (expectedVersion != null) {
+            // Documents written before version stamps existed have no version field
+            criteria = expectedVersion == 0
+                    ? criteria.and("version").in(0L, null)
+                    : criteria.and("version").is(expectedVersion);
+        }
+        return access != null ? new Criteria().andOperator(criteria, access) : criteria;
+    }
+
+    // Only runs when the write matched nothing, to tell the caller why
+    private ResponseStatusException failure(Class<?> type, String id, Long expectedVersion) {
+        String collection = mongoTemplate.getCollectionName(type);
+        VersionStamps.Stamp stamp = VersionStamps.find(mongoTemplate,
+                Criteria.where("_id").is(MongoIds.toObjectId(id)), collection);
+        if (stamp == null) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
+        }
+        if (expectedVersion != null && stamp.version() != expectedVersion) {
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Modified by someone else");
+        }
+        return new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to change this document");
+    }
+
+    private Object convert(Class<?> type, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(type, fieldName);
+        if (field == null) {
+            throw new IllegalStateException("No field " + fieldName + " on " + type.getSimpleName());
+        }
+        if (value == null) {
+            if (field.getType().isPrimitive()) {
+                throw new IllegalArgumentException("Field cannot be removed: " + fieldName);
+            }
+            return null;
+        }
+        JavaType javaType = objectMapper.getTypeFactory().constructType(field.getGenericType());
+        return objectMapper.convertValue(value, javaType);
+    }
+
+    /**
+     * Reads the version from an {@code If-Match} header holding an ETag
+     * issued by a conditional GET ({@code "<id>-<version>"}, or
+     * {@code "<id>-<version>-<authorVersion>"} for documents that embed their
+     * author; only the document version is checked). If-Match uses strong
+     * comparison (RFC 9110), so a weak ETag never matches.
+     *
+     * @return The version, or null if there is no header or it is {@code *}.
+     * @throws IllegalArgumentException if the ETag does not belong to the document.
+     * @throws ResponseStatusException 412 for a weak ETag.
+     */
+    public static Long expectedVersion(String ifMatch, String id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<String> tags = Arrays.asList(ifMatch.split(","));
+        if (tags.size() != 1) {
+            throw new IllegalArgumentException("Only one ETag is supported in If-Match");
+        }
+        String tag = tags.get(0).trim();
+        if (tag.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Weak ETags do not match in If-Match");
+        }
+        String prefix = "\"" + id + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("ETag does not match the document");
+        }
+        String versions = tag.substring(prefix.length(), tag.length() - 1);
+        int authorPart = versions.indexOf('-');
+        try {
+            if (authorPart < 0) {
+                return Long.parseLong(versions);
+            }
+            Long.parseLong(versions.substring(authorPart + 1));
+            return Long.parseLong(versions.substring(0, authorPart));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed ETag");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Comment;
+import com.app.learnly.model.Like;
+import com.app.learnly.model.Post;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.VersionStamps;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the denormalized {@code likeCount} and {@code commentCount} on posts
+ * up to date with atomic increments, and repairs drift from the source
+ * collections.
+ */
+@Service
+public class EngagementCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementCounterService.class);
+
+    private static final int REPAIR_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void adjustLikeCount(String postId, long delta) {
+        adjust(postId, "likeCount", delta);
+    }
+
+    /**
+     * Adds one like to a post's counter.
+     *
+     * @return The post holding just its tags, or null if it does not exist.
+     */
+    public Post incrementLikeCount(String postId) {
+        Query query = Query.query(Criteria.where("_id").is(postId));
+        query.fields().include("tags");
+        return mongoTemplate.findAndModify(query, VersionStamps.touch(new Update().inc("likeCount", 1)),
+                FindAndModifyOptions.options().returnNew(true), Post.class);
+    }
+
+    public void adjustCommentCount(String postId, long delta) {
+        adjust(postId, "commentCount", delta);
+    }
+
+    // Decrements never take a counter below zero
+    private void adjust(String postId, String field, long delta) {
+        Criteria criteria = Criteria.where("_id").is(postId);
+        if (delta < 0) {
+            criteria = criteria.and(field).gte(-delta);
+        }
+        mongoTemplate.updateFirst(Query.query(criteria), VersionStamps.touch(new Update().inc(field, delta)), Post.class);
+    }
+
+    /**
+     * Reads only the counters of a post.
+     *
+     * @param postId The ID of the post.
+     * @return A post holding just its id, likeCount and commentCount, or empty if not found.
+     */
+    public Optional<Post> getCounts(String postId) {
+        Query query = Query.query(Criteria.where("_id").is(postId));
+        query.fields().include("likeCount", "commentCount");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Post.class));
+    }
+
+    /**
+     * Recomputes every post's counters from the likes and comments collections
+     * and rewrites the ones that drifted, on the maintenance executor rather
+     * than the scheduler thread. Streams posts so memory stays bounded, and
+     * counts each batch of posts with one grouped aggregation per source
+     * collection instead of two queries per post. Each rewrite only applies if
+     * the counters still hold the values read with the post, so a like or
+     * comment counted meanwhile is never overwritten; such a post is left for
+     * the next run.
+     */
+    @Async("maintenanceExecutor")
+    @Scheduled(cron = "${engagement.repair.cron:0 30 3 * * *}")
+    public void repairCounts() {
+        long start = System.currentTimeMillis();
+        Query query = new Query().cursorBatchSize(REPAIR_BATCH_SIZE);
+        query.fields().include("likeCount", "commentCount");
+
+        int scanned = 0;
+        int repaired = 0;
+        List<Post> batch = new ArrayList<>(REPAIR_BATCH_SIZE);
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                scanned++;
+                batch.add(post);
+                if (batch.size() == REPAIR_BATCH_SIZE) {
+                    repaired += repairBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            repaired += repairBatch(batch);
+        }
+        log.info("Engagement counter repair scanned {} posts, repaired {} in {} ms",
+                scanned, repaired, System.currentTimeMillis() - start);
+    }
+
+    private int repairBatch(List<Post> batch) {
+        List<String> postIds = batch.stream().map(Post::getId).toList();
+        Map<String, Long> likes = countByPost(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count")), Like.class);
+        // post.$id cannot be used as a field path, hence $getField
+        AggregationOperation groupByPost = context -> new Document("$group", new Document("_id",
+                new Document("$getField", new Document("field", new Document("$literal", "$id")).append("input", "$post")))
+                .append("count", new Document("$sum", 1)));
+        Map<String, Long> comments = countByPost(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("post.$id").in(MongoIds.toObjectIds(postIds))),
+                groupByPost), Comment.class);
+
+        BulkOperations bulk = null;
+        for (Post post : batch) {
+            // Posts without a group have no likes or comments left
+            long likeCount = likes.getOrDefault(post.getId(), 0L);
+            long commentCount = comments.getOrDefault(post.getId(), 0L);
+            if (likeCount == post.getLikeCount() && commentCount == post.getCommentCount()) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(post.getId())
+                            .and("likeCount").in(readValues(post.getLikeCount()))
+                            .and("commentCount").in(readValues(post.getCommentCount()))),
+                    VersionStamps.touch(new Update().set("likeCount", likeCount).set("commentCount", commentCount)));
+        }
+        return bulk != null ? bulk.execute().getModifiedCount() : 0;
+    }
+
+    private Map<String, Long> countByPost(Aggregation aggregation, Class<?> source) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, source, Document.class)) {
+            counts.put(group.get("_id").toString(), group.get("count", Number.class).longValue());
+        }
+        return counts;
+    }
+
+    // A counter read as 0 may also be missing on posts written before counters existed
+    private static List<Object> readValues(long count) {
+        return count == 0 ? Arrays.asList(0L, null) : List.of(count);
+    }
+}
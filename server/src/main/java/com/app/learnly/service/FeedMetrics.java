@@ -0,0 +1,53 @@
+package com.app.learnly.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process latency counters for the feed engine, keyed by stage
+ * (e.g. "fanout.push", "read.pull").
+ */
+@Component
+public class FeedMetrics {
+
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+    public void record(String stage, long elapsedNanos) {
+        stats.computeIfAbsent(stage, key -> new Stat()).add(elapsedNanos);
+    }
+
+    /**
+     * @return Per-stage count, mean and max latency in microseconds.
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stats.forEach((stage, stat) -> {
+            long count = stat.count.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", count);
+            values.put("meanMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(stat.totalNanos.sum() / count));
+            values.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(stat.maxNanos.get()));
+            result.put(stage, values);
+        });
+        return result;
+    }
+
+    private static final class Stat {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.User;
+import com.app.learnly.util.MongoIds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranks the reader's home feed with the configured {@link FeedScorer}.
+ * The work per request is fixed: at most {@code feed.ranking.max-candidates}
+ * candidates are loaded with a narrow projection, scoring stops when the
+ * time budget is spent, and reader-independent base scores are cached.
+ */
+@Service
+public class FeedRankingService {
+
+    // Check the clock every this many candidates rather than on every one
+    private static final int BUDGET_CHECK_INTERVAL = 32;
+
+    private static final int MAX_CACHED_SCORES = 50_000;
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(Scored::post, Comparator.comparing(PostView::getCreatedAt,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FeedScorer feedScorer;
+
+    @Autowired
+    private FeedMetrics feedMetrics;
+
+    @Autowired
+    private FollowService followService;
+
+    @Value("${feed.ranking.max-candidates:500}")
+    private int maxCandidates;
+
+    @Value("${feed.ranking.budget-ms:25}")
+    private long budgetMillis;
+
+    @Value("${feed.ranking.score-cache-ttl-ms:60000}")
+    private long scoreCacheTtlMillis;
+
+    private final Map<String, CachedScore> scoreCache = new ConcurrentHashMap<>();
+
+    private record CachedScore(long likeCount, long commentCount, long computedAt, double value) {
+    }
+
+    private record Scored(PostView post, double score) {
+    }
+
+    /**
+     * Returns the best posts for the reader. Candidates are the newest posts
+     * of the home timeline; readers with a thin timeline also get the newest
+     * posts of everyone so the feed is never empty.
+     *
+     * @param reader The user whose feed is ranked.
+     * @param limit Requested number of posts.
+     * @return Hydrated posts, best first.
+     */
+    public List<PostView> getRankedFeed(User reader, int limit) {
+        long start = System.nanoTime();
+        int pageSize = PostService.clampPageSize(limit);
+
+        List<PostView> candidates = loadCandidates(reader);
+        long loadedAt = System.nanoTime();
+        feedMetrics.record("rank.candidates", loadedAt - start);
+
+        Set<String> followed = new HashSet<>(followService.getFollowingIds(reader.getId()));
+        FeedScorer.Context context = new FeedScorer.Context(reader.getId(), followed, System.currentTimeMillis());
+        List<Scored> best = rank(candidates, context, pageSize, loadedAt + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        long rankedAt = System.nanoTime();
+        feedMetrics.record("rank.score", rankedAt - loadedAt);
+
+        List<PostView> posts = hydrationService.loadPostsInOrder(best.stream().map(s -> s.post().getId()).toList());
+        feedMetrics.record("rank.total", System.nanoTime() - start);
+        return posts;
+    }
+
+    // Only the fields the scorer needs, so a large candidate set stays cheap to read
+    private List<PostView> loadCandidates(User reader) {
+        Set<String> ids = new LinkedHashSet<>(timelineService.getRecentPostIds(reader, maxCandidates));
+        List<PostView> candidates = new ArrayList<>(maxCandidates);
+        if (!ids.isEmpty()) {
+            Query query = Query.query(Criteria.where("_id").in(MongoIds.toObjectIds(ids)));
+            includeScoringFields(query);
+            candidates.addAll(mongoTemplate.find(query, PostView.class, PostService.POSTS_COLLECTION));
+        }
+
+        int missing = maxCandidates - candidates.size();
+        if (missing > maxCandidates / 2) {
+            Query recent = new Query()
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                    .limit(missing + ids.size());
+            includeScoringFields(recent);
+            for (PostView post : mongoTemplate.find(recent, PostView.class, PostService.POSTS_COLLECTION)) {
+                if (!ids.contains(post.getId()) && candidates.size() < maxCandidates) {
+                    candidates.add(post);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static void includeScoringFields(Query query) {
+        query.fields().include("_id", "user", "createdAt", "likeCount", "commentCount");
+    }
+
+    /**
+     * Keeps the best {@code max} candidates in a bounded min-heap. Candidates
+     * left unscored when the deadline passes are ranked by recency alone,
+     * below every scored candidate.
+     */
+    private List<Scored> rank(List<PostView> candidates, FeedScorer.Context context, int max, long deadlineNanos) {
+        PriorityQueue<Scored> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        boolean budgetSpent = false;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!budgetSpent && i % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+                budgetSpent = true;
+                feedMetrics.record("rank.budget-exceeded", System.nanoTime() - deadlineNanos);
+            }
+            PostView post = candidates.get(i);
+            double score = budgetSpent ? -1 : baseScore(post, context.nowMillis()) * feedScorer.affinity(post, context);
+            best.add(new Scored(post, score));
+            if (best.size() > max) {
+                best.poll();
+            }
+        }
+        List<Scored> result = new ArrayList<>(best);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    private double baseScore(PostView post, long nowMillis) {
+        CachedScore cached = scoreCache.get(post.getId());
+        if (cached != null && cached.likeCount() == post.getLikeCount()
+                && cached.commentCount() == post.getCommentCount()
+                && nowMillis - cached.computedAt() < scoreCacheTtlMillis) {
+            return cached.value();
+        }
+        double value = feedScorer.baseScore(post, nowMillis);
+        if (scoreCache.size() >= MAX_CACHED_SCORES) {
+            scoreCache.clear();
+        }
+        scoreCache.put(post.getId(), new CachedScore(post.getLikeCount(), post.getCommentCount(), nowMillis, value));
+        return value;
+    }
+}
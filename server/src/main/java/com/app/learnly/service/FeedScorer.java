@@ -0,0 +1,37 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+
+import java.util.Set;
+
+/**
+ * Scores feed candidates for {@link FeedRankingService}. The final score of
+ * a post is {@code baseScore * affinity}: the base score only depends on the
+ * post and may be cached for a short time, the affinity depends on the reader.
+ */
+public interface FeedScorer {
+
+    /**
+     * Reader-independent part of the score, e.g. recency and engagement.
+     *
+     * @param post The candidate, with created date and engagement counts.
+     * @param nowMillis The time the request is ranked at.
+     * @return A non-negative score; higher ranks first.
+     */
+    double baseScore(PostView post, long nowMillis);
+
+    /**
+     * Multiplier for how close the reader is to the author of the post.
+     */
+    double affinity(PostView post, Context context);
+
+    /**
+     * Per-request reader state shared by all candidates.
+     *
+     * @param readerId The reader's user ID.
+     * @param followedAuthorIds IDs of the users the reader follows.
+     * @param nowMillis The time the request is ranked at.
+     */
+    record Context(String readerId, Set<String> followedAuthorIds, long nowMillis) {
+    }
+}
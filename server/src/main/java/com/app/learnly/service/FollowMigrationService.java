@@ -0,0 +1,219 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.User;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.VersionStamps;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves the {@code followers}/{@code following} arrays embedded in user
+ * documents to {@link Follow} edges, in the background after startup. Each
+ * array entry becomes an upserted edge, so the two sides of a pair (stored
+ * once on each user) produce a single edge, and like live follows, only the
+ * edges actually inserted move the counts. Until the arrays are gone,
+ * {@link FollowService#unfollow} also pulls the pair from them, and a batch
+ * drops the edges it inserted for pairs pulled while it ran, so an unfollow
+ * racing the migration is never undone.
+ */
+@Service
+public class FollowMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowMigrationService.class);
+
+    private static final int BATCH_SIZE = 200;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    private volatile boolean migrated;
+
+    private record Pair(String sourceId, String field, String followerId, String followeeId) {
+    }
+
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("followers").exists(true),
+                Criteria.where("following").exists(true))).limit(BATCH_SIZE);
+        query.fields().include("followers", "following");
+
+        int users = 0;
+        try {
+            List<Document> batch;
+            while (!(batch = mongoTemplate.find(query, Document.class, "users")).isEmpty()) {
+                migrateBatch(batch);
+                users += batch.size();
+            }
+            migrated = true;
+            if (users > 0) {
+                log.info("Moved the follow arrays of {} users to edges in {} ms", users, System.currentTimeMillis() - start);
+                // The migrated edges bypass FollowService, so the in-memory graph is reloaded
+                followSuggestionService.rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.error("Follow migration failed after {} users; it resumes on the next start", users, e);
+        }
+    }
+
+    /**
+     * Removes a pair from the legacy arrays of both users, so a migration
+     * batch that has not reached them yet does not recreate the edge. Does
+     * nothing once every user has been migrated.
+     */
+    public void pullLegacyPair(String followerId, String followeeId) {
+        if (migrated) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(MongoIds.toObjectId(followerId)).and("following").is(followeeId)),
+                new Update().pull("following", followeeId), "users");
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(MongoIds.toObjectId(followeeId)).and("followers").is(followerId)),
+                new Update().pull("followers", followerId), "users");
+    }
+
+    private void migrateBatch(List<Document> users) {
+        List<Pair> pairs = new ArrayList<>();
+        List<Object> ids = new ArrayList<>(users.size());
+        for (Document user : users) {
+            String userId = user.get("_id").toString();
+            ids.add(user.get("_id"));
+            for (String followerId : stringList(user, "followers")) {
+                addPair(pairs, userId, "followers", followerId, userId);
+            }
+            for (String followeeId : stringList(user, "following")) {
+                addPair(pairs, userId, "following", userId, followeeId);
+            }
+        }
+
+        List<Pair> inserted = upsertEdges(pairs);
+        if (!inserted.isEmpty()) {
+            // Re-read the arrays: a pair pulled by an unfollow since the batch was read must not keep its edge
+            Query current = Query.query(Criteria.where("_id").in(ids));
+            current.fields().include("followers", "following");
+            Map<String, Document> fresh = new HashMap<>();
+            mongoTemplate.find(current, Document.class, "users").forEach(doc -> fresh.put(doc.get("_id").toString(), doc));
+
+            Map<String, Long> followerCounts = new HashMap<>();
+            Map<String, Long> followingCounts = new HashMap<>();
+            for (Pair pair : inserted) {
+                Document source = fresh.get(pair.sourceId());
+                boolean pulled = source == null || !stringList(source, pair.field()).contains(
+                        pair.field().equals("followers") ? pair.followerId() : pair.followeeId());
+                if (pulled) {
+                    mongoTemplate.remove(Query.query(Criteria.where("followerId").is(pair.followerId())
+                            .and("followeeId").is(pair.followeeId())), Follow.class);
+                } else {
+                    followerCounts.merge(pair.followeeId(), 1L, Long::sum);
+                    followingCounts.merge(pair.followerId(), 1L, Long::sum);
+                }
+            }
+            incrementCounts(followerCounts, followingCounts);
+        }
+        // Counts are applied before the arrays go, so a batch re-run after a failure finds its edges and counts nothing twice
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                new Update().unset("followers").unset("following"), "users");
+    }
+
+    private static void addPair(List<Pair> pairs, String sourceId, String field, String followerId, String followeeId) {
+        if (followerId != null && !followerId.equals(followeeId)) {
+            pairs.add(new Pair(sourceId, field, followerId, followeeId));
+        }
+    }
+
+    // Returns the pairs whose upsert inserted a new edge, like FollowService.createEdges
+    private List<Pair> upsertEdges(List<Pair> pairs) {
+        if (pairs.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+        Date now = new Date();
+        for (Pair pair : pairs) {
+            bulk.upsert(Query.query(Criteria.where("followerId").is(pair.followerId()).and("followeeId").is(pair.followeeId())),
+                    new Update().setOnInsert("createdAt", now));
+        }
+        List<BulkWriteUpsert> upserts;
+        try {
+            upserts = bulk.execute().getUpserts();
+        } catch (BulkOperationException e) {
+            // Two upserts of the same new pair race on the unique index; the edge exists either way
+            e.getErrors().forEach(error -> {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            });
+            upserts = e.getResult().getUpserts();
+        }
+        List<Pair> inserted = new ArrayList<>(upserts.size());
+        for (BulkWriteUpsert upsert : upserts) {
+            inserted.add(pairs.get(upsert.getIndex()));
+        }
+        return inserted;
+    }
+
+    // The same versioned $inc as live follows, so the two commute and cached profiles see the new counts
+    private void incrementCounts(Map<String, Long> followerCounts, Map<String, Long> followingCounts) {
+        if (followerCounts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        Set<String> userIds = new HashSet<>(followerCounts.keySet());
+        userIds.addAll(followingCounts.keySet());
+        for (String userId : userIds) {
+            Update update = new Update();
+            Long followers = followerCounts.get(userId);
+            if (followers != null) {
+                update.inc("followerCount", followers);
+            }
+            Long following = followingCounts.get(userId);
+            if (following != null) {
+                update.inc("followingCount", following);
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(userId))), VersionStamps.touch(update));
+        }
+        bulk.execute();
+    }
+
+    private static List<String> stringList(Document user, String field) {
+        Object value = user.get(field);
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(list.size());
+        for (Object id : list) {
+            if (id != null) {
+                ids.add(id.toString());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,333 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.User;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The follow graph, stored as {@link Follow} edges indexed from both ends,
+ * with follower and following counts kept on {@link User}.
+ */
+@Service
+public class FollowService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final int REMOVAL_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    @Autowired
+    private FollowMigrationService followMigrationService;
+
+    /**
+     * Makes one user follow another. Following someone already followed
+     * changes nothing.
+     *
+     * @return The follower with current counts.
+     * @throws ResponseStatusException 400 for a self-follow, 404 if the followee does not exist.
+     */
+    public User follow(User follower, String followeeId) {
+        if (follower.getId().equals(followeeId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Users cannot follow themselves");
+        }
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(followeeId))), User.class)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return createEdges(follower, List.of(followeeId));
+    }
+
+    /**
+     * Makes one user follow several others at once, e.g. during onboarding.
+     * Users already followed, unknown IDs and the follower's own ID are skipped.
+     *
+     * @param followeeIds User IDs, at most {@link PostService#MAX_BATCH_IDS}; duplicates are ignored.
+     * @return The follower with current counts.
+     * @throws IllegalArgumentException if no ids or too many ids are given.
+     */
+    public User followAll(User follower, List<String> followeeIds) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (followeeIds != null) {
+            for (String id : followeeIds) {
+                if (id != null && !id.isBlank() && !id.equals(follower.getId())) {
+                    distinct.add(id);
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one user id is required");
+        }
+        if (distinct.size() > PostService.MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Too many user ids");
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(MongoIds.toObjectIds(distinct)));
+        query.fields().include("_id");
+        List<String> existing = mongoTemplate.find(query, Document.class, "users").stream()
+                .map(doc -> doc.get("_id").toString())
+                .collect(Collectors.toList());
+        return createEdges(follower, existing);
+    }
+
+    /**
+     * Upserts the edges in one unordered bulk write. An upsert that matched
+     * an existing edge changes nothing, so only the edges this call created
+     * move the counts; of two racing requests for the same pair, the one that
+     * loses on the unique index creates nothing and counts nothing.
+     */
+    private User createEdges(User follower, List<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return follower;
+        }
+        BulkOperations edges = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+        Date now = new Date();
+        for (String followeeId : followeeIds) {
+            edges.upsert(Query.query(Criteria.where("followerId").is(follower.getId()).and("followeeId").is(followeeId)),
+                    new Update().setOnInsert("createdAt", now));
+        }
+
+        List<BulkWriteUpsert> created;
+        try {
+            created = edges.execute().getUpserts();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            });
+            created = e.getResult().getUpserts();
+        }
+        if (created.isEmpty()) {
+            return follower;
+        }
+
+        BulkOperations counts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (BulkWriteUpsert upsert : created) {
+            String followeeId = followeeIds.get(upsert.getIndex());
+            counts.updateOne(countQuery(followeeId, "followerCount", 1),
+                    VersionStamps.touch(new Update().inc("followerCount", 1)));
+            followSuggestionService.onFollow(follower.getId(), followeeId);
+        }
+        counts.execute();
+        return adjustCountAndGet(follower, "followingCount", created.size());
+    }
+
+    /**
+     * Removes a follow edge. Unfollowing someone not followed changes nothing.
+     *
+     * @return The follower with current counts.
+     */
+    public User unfollow(User follower, String followeeId) {
+        // Pulled before the edge is removed, so a migration batch that already read the pair drops the edge it inserts
+        followMigrationService.pullLegacyPair(follower.getId(), followeeId);
+        Query edge = Query.query(Criteria.where("followerId").is(follower.getId()).and("followeeId").is(followeeId));
+        if (mongoTemplate.remove(edge, Follow.class).getDeletedCount() == 0) {
+            return follower;
+        }
+        followSuggestionService.onUnfollow(follower.getId(), followeeId);
+        adjustCount(followeeId, "followerCount", -1);
+        return adjustCountAndGet(follower, "followingCount", -1);
+    }
+
+    /**
+     * Removes every edge of a deleted user, in batches from each edge index,
+     * and takes each removed edge off the count of the user at its other end.
+     * Call after the user document is gone, so no new edge to the user can be
+     * created meanwhile.
+     */
+    public void removeAllEdges(String userId) {
+        removeEdges("followerId", userId, Follow::getFolloweeId, "followerCount");
+        removeEdges("followeeId", userId, Follow::getFollowerId, "followingCount");
+    }
+
+    private void removeEdges(String ownField, String userId, Function<Follow, String> otherEnd, String otherCount) {
+        while (true) {
+            Query query = Query.query(Criteria.where(ownField).is(userId)).limit(REMOVAL_BATCH_SIZE);
+            query.fields().include("followerId", "followeeId");
+            List<Follow> edges = mongoTemplate.find(query, Follow.class);
+            if (edges.isEmpty()) {
+                return;
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(edges.stream().map(Follow::getId).toList())),
+                    Follow.class);
+
+            BulkOperations counts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (Follow edge : edges) {
+                counts.updateOne(countQuery(otherEnd.apply(edge), otherCount, -1),
+                        VersionStamps.touch(new Update().inc(otherCount, -1)));
+                followSuggestionService.onUnfollow(edge.getFollowerId(), edge.getFolloweeId());
+            }
+            counts.execute();
+        }
+    }
+
+    public boolean isFollowing(String followerId, String followeeId) {
+        return mongoTemplate.exists(
+                Query.query(Criteria.where("followerId").is(followerId).and("followeeId").is(followeeId)), Follow.class);
+    }
+
+    /**
+     * Checks many edges of one follower with a single query on the unique
+     * (followerId, followeeId) index, without reading the rest of the
+     * follower's edges.
+     *
+     * @return The given users that the follower follows.
+     */
+    public Set<String> filterFollowed(String followerId, Collection<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("followerId").is(followerId).and("followeeId").in(followeeIds));
+        query.fields().include("followeeId").exclude("_id");
+        return mongoTemplate.find(query, Follow.class).stream()
+                .map(Follow::getFolloweeId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return IDs of the users the given user follows, read from the edge index only.
+     */
+    public List<String> getFollowingIds(String userId) {
+        Query query = Query.query(Criteria.where("followerId").is(userId));
+        query.fields().include("followeeId").exclude("_id");
+        return mongoTemplate.find(query, Follow.class).stream()
+                .map(Follow::getFolloweeId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return IDs of the users following the given user, read from the edge index only.
+     */
+    public List<String> getFollowerIds(String userId) {
+        Query query = Query.query(Criteria.where("followeeId").is(userId));
+        query.fields().include("followerId").exclude("_id");
+        return mongoTemplate.find(query, Follow.class).stream()
+                .map(Follow::getFollowerId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads one batch of a user's follower edges, newest first, for work that
+     * must reach every follower (fan-out, cleanup). Only the follower ID and
+     * the keyset fields are loaded; pass a cursor built from the last edge of
+     * the previous batch to continue.
+     */
+    public List<Follow> getFollowerEdges(String userId, PageCursor after, int limit) {
+        Criteria criteria = Criteria.where("followeeId").is(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.olderThan("createdAt"));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit);
+        query.fields().include("followerId", "createdAt");
+        return mongoTemplate.find(query, Follow.class);
+    }
+
+    /**
+     * @return A cursor continuing after the last edge of a batch.
+     */
+    public static PageCursor after(List<Follow> edges) {
+        Follow last = edges.get(edges.size() - 1);
+        return new PageCursor(last.getCreatedAt(), last.getId());
+    }
+
+    /**
+     * Pages through a user's followers, newest follow first.
+     */
+    public CursorPage<AuthorSummary> getFollowersPage(String userId, PageCursor after, int limit) {
+        return readPage("followeeId", userId, Follow::getFollowerId, after, limit);
+    }
+
+    /**
+     * Pages through the users a user follows, newest follow first.
+     */
+    public CursorPage<AuthorSummary> getFollowingPage(String userId, PageCursor after, int limit) {
+        return readPage("followerId", userId, Follow::getFolloweeId, after, limit);
+    }
+
+    // Edges from one index page, then the other ends' summaries in one batch
+    private CursorPage<AuthorSummary> readPage(String ownField, String userId, Function<Follow, String> otherEnd,
+                                               PageCursor after, int limit) {
+        int pageSize = PostService.clampPageSize(limit);
+        Criteria criteria = Criteria.where(ownField).is(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.olderThan("createdAt"));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(pageSize + 1);
+        List<Follow> edges = mongoTemplate.find(query, Follow.class);
+
+        boolean hasMore = edges.size() > pageSize;
+        if (hasMore) {
+            edges = edges.subList(0, pageSize);
+        }
+        Map<String, AuthorSummary> users = hydrationService.loadAuthors(edges.stream().map(otherEnd).toList());
+        List<AuthorSummary> items = new ArrayList<>(edges.size());
+        for (Follow edge : edges) {
+            AuthorSummary user = users.get(otherEnd.apply(edge));
+            if (user != null) {
+                items.add(user);
+            }
+        }
+        String nextCursor = hasMore ? after(edges).encode() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    // Decrements never take a count below zero
+    private void adjustCount(String userId, String field, long delta) {
+        mongoTemplate.updateFirst(countQuery(userId, field, delta), VersionStamps.touch(new Update().inc(field, delta)),
+                User.class);
+    }
+
+    private User adjustCountAndGet(User user, String field, long delta) {
+        User updated = mongoTemplate.findAndModify(countQuery(user.getId(), field, delta),
+                VersionStamps.touch(new Update().inc(field, delta)), FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        return updated != null ? updated : user;
+    }
+
+    private static Query countQuery(String userId, String field, long delta) {
+        Criteria criteria = Criteria.where("_id").is(MongoIds.toObjectId(userId));
+        if (delta < 0) {
+            criteria = criteria.and(field).gte(-delta);
+        }
+        return Query.query(criteria);
+    }
+}
@@ -0,0 +1,406 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.UserSuggestion;
+import com.app.learnly.util.FollowGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * "People you may know" suggestions from an in-memory {@link FollowGraph}.
+ * The graph is loaded from the follows collection after startup, kept
+ * current by {@link FollowService} on every follow and unfollow, and
+ * rebuilt periodically to pick up edges written elsewhere (e.g. by the
+ * migration). Candidates are two hops away: followed by users the caller
+ * follows, followed by users who follow the caller, or following the
+ * caller. Intermediate users are weighted down by their out-degree so a
+ * few prolific followers do not dominate, only the newest
+ * {@code suggestions.max-fanout} edges of a node are expanded, and scoring
+ * stops when the per-request time budget is spent.
+ */
+@Service
+public class FollowSuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowSuggestionService.class);
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final float FRIEND_OF_FRIEND_WEIGHT = 1.0f;
+    private static final float SHARED_FOLLOWER_WEIGHT = 0.5f;
+    private static final float FOLLOWS_YOU_WEIGHT = 2.0f;
+
+    // Check the clock every this many expanded edges rather than on every one
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    // Lazy so scheduled rebuilds go through the async proxy of this bean
+    @Lazy
+    @Autowired
+    private FollowSuggestionService self;
+
+    @Value("${suggestions.budget-ms:20}")
+    private long budgetMillis;
+
+    @Value("${suggestions.max-fanout:200}")
+    private int maxFanout;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock
+    private FollowGraph graph;
+    // Changes made while a rebuild streams the collection, replayed onto the new graph; guarded by lock
+    private List<Change> pendingChanges;
+
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+    private volatile Date lastRebuiltAt;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder requestNanos = new LongAdder();
+
+    private record Change(boolean added, String followerId, String followeeId) {
+    }
+
+    public void onFollow(String followerId, String followeeId) {
+        apply(new Change(true, followerId, followeeId));
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        apply(new Change(false, followerId, followeeId));
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (graph != null) {
+                applyTo(graph, change);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(FollowGraph target, Change change) {
+        if (change.added()) {
+            target.addEdge(change.followerId(), change.followeeId());
+        } else {
+            target.removeEdge(change.followerId(), change.followeeId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${suggestions.graph.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${suggestions.graph.rebuild-interval-ms:3600000}")
+    public void scheduleRebuild() {
+        self.rebuild();
+    }
+
+    /**
+     * Loads the whole graph from the follows collection into a new
+     * structure and swaps it in. Reads keep using the old graph meanwhile;
+     * follows and unfollows that happen during the load are replayed onto
+     * the new one, where they are idempotent.
+     */
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Rebuilds run one at a time; one requested during another (e.g. after the migration) runs after it
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            FollowGraph loaded = load();
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> applyTo(loaded, change));
+                graph = loaded;
+            } finally {
+                pendingChanges = null;
+                lock.writeLock().unlock();
+            }
+            lastRebuildMillis.set(System.currentTimeMillis() - start);
+            lastRebuiltAt = new Date();
+            log.info("Loaded follow graph with {} users and {} edges in {} ms",
+                    loaded.nodeCount(), loaded.edgeCount(), lastRebuildMillis.get());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Could not load the follow graph", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private FollowGraph load() {
+        long users = mongoTemplate.estimatedCount("users");
+        FollowGraph loaded = new FollowGraph((int) Math.min(Integer.MAX_VALUE - 8, users));
+        Query query = new Query().cursorBatchSize(LOAD_BATCH_SIZE);
+        query.fields().include("followerId", "followeeId").exclude("_id");
+        try (Stream<Follow> edges = mongoTemplate.stream(query, Follow.class)) {
+            edges.forEach(edge -> loaded.addNewEdge(edge.getFollowerId(), edge.getFolloweeId()));
+        }
+        loaded.trim();
+        return loaded;
+    }
+
+    /**
+     * Returns users the given user may want to follow, best first. Users
+     * already followed and the user themself are never suggested.
+     *
+     * @param userId The ID of the user asking.
+     * @param limit Requested number of suggestions, clamped to 1..{@link #MAX_SUGGESTIONS}.
+     * @return Suggestions; empty while the graph is loading or for users without any follow edges.
+     */
+    public List<UserSuggestion> suggest(String userId, int limit) {
+        long start = System.nanoTime();
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        List<String> ids = new ArrayList<>(size);
+        List<Float> scores = new ArrayList<>(size);
+        List<Integer> mutuals = new ArrayList<>(size);
+        lock.readLock().lock();
+        try {
+            int node = graph != null ? graph.indexOf(userId) : -1;
+            if (node >= 0) {
+                Candidates candidates = score(graph, node, deadline);
+                for (int slot : candidates.best(size)) {
+                    ids.add(graph.idOf(candidates.keys[slot]));
+                    scores.add(candidates.scores[slot]);
+                    mutuals.add(candidates.mutual[slot]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, AuthorSummary> users = hydrationService.loadAuthors(ids);
+        List<UserSuggestion> suggestions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            AuthorSummary user = users.get(ids.get(i));
+            if (user != null) {
+                suggestions.add(new UserSuggestion(user, scores.get(i), mutuals.get(i)));
+            }
+        }
+        requests.increment();
+        requestNanos.add(System.nanoTime() - start);
+        return suggestions;
+    }
+
+    Candidates score(FollowGraph g, int node, long deadline) {
+        int[] following = g.following(node);
+        int followingCount = g.outDegree(node);
+        int[] followers = g.followers(node);
+        int followerCount = g.inDegree(node);
+
+        Candidates candidates = new Candidates(Math.min(maxFanout * 8, 1 << 16));
+        candidates.exclude(node);
+        for (int i = 0; i < followingCount; i++) {
+            candidates.exclude(following[i]);
+        }
+
+        // Newest edges first; arrays are kept in insertion order
+        int expanded = 0;
+        for (int i = followerCount - 1; i >= Math.max(0, followerCount - maxFanout); i--) {
+            candidates.add(followers[i], FOLLOWS_YOU_WEIGHT, 0);
+        }
+        for (int i = followingCount - 1; i >= Math.max(0, followingCount - maxFanout); i--) {
+            int friend = following[i];
+            float weight = FRIEND_OF_FRIEND_WEIGHT * hubDamping(g.outDegree(friend));
+            int[] next = g.following(friend);
+            for (int j = g.outDegree(friend) - 1; j >= Math.max(0, g.outDegree(friend) - maxFanout); j--) {
+                candidates.add(next[j], weight, 1);
+                if (++expanded % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    budgetExhausted.increment();
+                    return candidates;
+                }
+            }
+        }
+        for (int i = followerCount - 1; i >= Math.max(0, followerCount - maxFanout); i--) {
+            int follower = followers[i];
+            float weight = SHARED_FOLLOWER_WEIGHT * hubDamping(g.outDegree(follower));
+            int[] next = g.following(follower);
+            for (int j = g.outDegree(follower) - 1; j >= Math.max(0, g.outDegree(follower) - maxFanout); j--) {
+                candidates.add(next[j], weight, 0);
+                if (++expanded % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    budgetExhausted.increment();
+                    return candidates;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Adamic-Adar style: a path through someone who follows thousands says little
+    private static float hubDamping(int degree) {
+        return (float) (1.0 / Math.log(Math.E + degree));
+    }
+
+    /**
+     * Open-addressing map from node index to accumulated score and mutual
+     * follow count, so scoring allocates a few primitive arrays instead of
+     * one boxed entry per candidate.
+     */
+    static final class Candidates {
+        private static final int EXCLUDED = -1;
+
+        int[] keys;
+        float[] scores;
+        int[] mutual;
+        private int size;
+
+        Candidates(int expected) {
+            allocate(Integer.highestOneBit(Math.max(16, expected) * 2));
+        }
+
+        void exclude(int node) {
+            mutual[slot(node)] = EXCLUDED;
+        }
+
+        void add(int node, float score, int mutualDelta) {
+            int slot = slot(node);
+            if (mutual[slot] != EXCLUDED) {
+                scores[slot] += score;
+                mutual[slot] += mutualDelta;
+            }
+        }
+
+        // Slots of the highest scores, best first
+        List<Integer> best(int limit) {
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] < 0 || mutual[slot] == EXCLUDED) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(slot);
+                } else if (scores[slot] > scores[top.peek()]) {
+                    top.poll();
+                    top.add(slot);
+                }
+            }
+            List<Integer> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(0, top.poll());
+            }
+            return result;
+        }
+
+        private int slot(int node) {
+            int mask = keys.length - 1;
+            int slot = (node * 0x9E3779B9) >>> 7 & mask;
+            while (keys[slot] >= 0) {
+                if (keys[slot] == node) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size + 1 > keys.length * 3 / 4) {
+                grow();
+                return slot(node);
+            }
+            keys[slot] = node;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldScores = scores;
+            int[] oldMutual = mutual;
+            allocate(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] < 0) {
+                    continue;
+                }
+                int slot = (oldKeys[i] * 0x9E3779B9) >>> 7 & mask;
+                while (keys[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                scores[slot] = oldScores[i];
+                mutual[slot] = oldMutual[i];
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            scores = new float[capacity];
+            mutual = new int[capacity];
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long nodes;
+        long edges;
+        long bytes;
+        lock.readLock().lock();
+        try {
+            nodes = graph != null ? graph.nodeCount() : 0;
+            edges = graph != null ? graph.edgeCount() : 0;
+            bytes = graph != null ? graph.estimatedBytes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+        long count = requests.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("loaded", lastRebuiltAt != null);
+        result.put("lastRebuiltAt", lastRebuiltAt);
+        result.put("lastRebuildMillis", lastRebuildMillis.get());
+        result.put("users", nodes);
+        result.put("edges", edges);
+        result.put("estimatedBytes", bytes);
+        result.put("bytesPerEdge", edges == 0 ? 0 : bytes / edges);
+        result.put("requests", count);
+        result.put("budgetExhausted", budgetExhausted.sum());
+        result.put("meanRequestMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(requestNanos.sum() / count));
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CommentView;
+import com.app.learnly.model.LearningPlanView;
+import com.app.learnly.model.LikeView;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.UserView;
+import com.app.learnly.util.MongoIds;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Resolves the user references of a result page with a single {@code $in}
+ * query instead of one {@code @DBRef} lookup per row.
+ */
+@Service
+public class HydrationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Loads author summaries (id, name, picture) for the given user ids.
+     *
+     * @param userIds The user IDs, duplicates allowed.
+     * @return Summaries keyed by user ID; unknown IDs are absent.
+     */
+    public Map<String, AuthorSummary> loadAuthors(Collection<String> userIds) {
+        Set<String> distinct = new LinkedHashSet<>(userIds);
+        distinct.remove(null);
+        Map<String, AuthorSummary> authors = new HashMap<>();
+        if (distinct.isEmpty()) {
+            return authors;
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(MongoIds.toObjectIds(distinct)));
+        query.fields().include("name", "picture");
+        for (Document doc : mongoTemplate.find(query, Document.class, "users")) {
+            String id = doc.get("_id").toString();
+            authors.put(id, new AuthorSummary(id, doc.getString("name"), doc.getString("picture")));
+        }
+        return authors;
+    }
+
+    /**
+     * Loads the user cards (name, email, picture, bio and counts) for the given
+     * user ids, for listings that show more of a user than an author line.
+     *
+     * @param userIds The user IDs, duplicates allowed.
+     * @return Users keyed by ID; unknown IDs are absent.
+     */
+    public Map<String, UserView> loadUsers(Collection<String> userIds) {
+        Set<String> distinct = new LinkedHashSet<>(userIds);
+        distinct.remove(null);
+        Map<String, UserView> users = new HashMap<>();
+        if (distinct.isEmpty()) {
+            return users;
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(MongoIds.toObjectIds(distinct)));
+        query.fields().include("name", "email", "picture", "bio", "followerCount", "followingCount");
+        for (UserView user : mongoTemplate.find(query, UserView.class, "users")) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+
+    /**
+     * Loads posts by id with one {@code $in} query, hydrates their authors and
+     * returns them in the order of the given ids. Missing posts are skipped.
+     */
+    public List<PostView> loadPostsInOrder(List<String> postIds) {
+        if (postIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query query = Query.query(Criteria.where("_id").in(MongoIds.toObjectIds(postIds)));
+        Map<String, PostView> byId = new HashMap<>();
+        for (PostView post : mongoTemplate.find(query, PostView.class, PostService.POSTS_COLLECTION)) {
+            byId.put(post.getId(), post);
+        }
+        List<PostView> posts = new ArrayList<>(byId.size());
+        for (String id : postIds) {
+            PostView post = byId.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return hydratePosts(posts);
+    }
+
+    public List<PostView> hydratePosts(List<PostView> posts) {
+        attach(posts, PostView::getAuthorId, PostView::setUser);
+        return posts;
+    }
+
+    public List<CommentView> hydrateComments(List<CommentView> comments) {
+        attach(comments, CommentView::getAuthorId, CommentView::setUser);
+        return comments;
+    }
+
+    public List<LikeView> hydrateLikes(List<LikeView> likes) {
+        attach(likes, LikeView::getAuthorId, LikeView::setUser);
+        return likes;
+    }
+
+    public List<LearningPlanView> hydratePlans(List<LearningPlanView> plans) {
+        if (plans.isEmpty()) {
+            return plans;
+        }
+        Map<String, UserView> owners = loadUsers(plans.stream().map(LearningPlanView::getOwnerId).filter(Objects::nonNull).toList());
+        for (LearningPlanView plan : plans) {
+            String id = plan.getOwnerId();
+            if (id != null) {
+                plan.setUser(owners.get(id));
+            }
+        }
+        return plans;
+    }
+
+    private <V> void attach(List<V> rows, Function<V, String> authorId, BiConsumer<V, AuthorSummary> setter) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<String, AuthorSummary> authors = loadAuthors(rows.stream().map(authorId).filter(Objects::nonNull).toList());
+        for (V row : rows) {
+            String id = authorId.apply(row);
+            if (id != null) {
+                setter.accept(row, authors.get(id));
+            }
+        }
+    }
+}
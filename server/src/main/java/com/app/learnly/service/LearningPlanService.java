@@ -1,12 +1,21 @@
 package com.app.learnly.service;
 
 import com.app.learnly.model.LearningPlan;
+import com.app.learnly.model.LearningPlanView;
 import com.app.learnly.repository.LearningPlanRepository;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -15,34 +24,104 @@ public class LearningPlanService {
     @Autowired
     private LearningPlanRepository learningPlanRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DocumentPatcher documentPatcher;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    // JSON property -> document field; the flag is serialized as "public" but created as "isPublic"
+    private static final Map<String, String> PATCHABLE_FIELDS = Map.of(
+            "title", "title",
+            "description", "description",
+            "topics", "topics",
+            "completionDate", "completionDate",
+            "isPublic", "isPublic",
+            "public", "isPublic");
+
     public LearningPlan createLearningPlan(LearningPlan learningPlan) {
         return learningPlanRepository.save(learningPlan);
     }
 
-    public List<LearningPlan> getLearningPlansByUserId(String userId) {
-        return learningPlanRepository.findByUserId(userId);
+    /**
+     * Lists the plans of a user, with the owner loaded once for the whole list.
+     */
+    public List<LearningPlanView> getLearningPlansByUserId(String userId) {
+        return listPlans(Criteria.where("user.$id").is(MongoIds.toObjectId(userId)));
+    }
+
+    /**
+     * Lists the public plans; the owners are loaded with one {@code $in} query.
+     */
+    public List<LearningPlanView> getPublicLearningPlans() {
+        return listPlans(Criteria.where("isPublic").is(true));
     }
 
-    public List<LearningPlan> getAllLearningPlans() {
-        return learningPlanRepository.findAll();
+    private List<LearningPlanView> listPlans(Criteria criteria) {
+        return hydrationService.hydratePlans(
+                mongoTemplate.find(Query.query(criteria), LearningPlanView.class, "learning_plans"));
     }
 
     public Optional<LearningPlan> getLearningPlanById(String id) {
         return learningPlanRepository.findById(id);
     }
 
-    public LearningPlan updateLearningPlan(String id, LearningPlan learningPlan) {
-        Optional<LearningPlan> existingPlan = learningPlanRepository.findById(id);
-        if (existingPlan.isPresent()) {
-            LearningPlan updatedPlan = existingPlan.get();
-            updatedPlan.setTitle(learningPlan.getTitle());
-            updatedPlan.setDescription(learningPlan.getDescription());
-            updatedPlan.setTopics(learningPlan.getTopics());
-            updatedPlan.setIsPublic(learningPlan.isPublic());
-            updatedPlan.setUpdatedAt(learningPlan.getUpdatedAt());
-            return learningPlanRepository.save(updatedPlan);
-        }
-        return null;
+    /**
+     * Reads only the version stamp of a plan the user may see (public or
+     * owned by them), without loading the plan or its owner.
+     *
+     * @return The stamp, or null if the plan does not exist or is not visible to the user.
+     */
+    public VersionStamps.Stamp getVisibleVersionStamp(String id, String userId) {
+        Criteria visible = new Criteria().orOperator(
+                Criteria.where("isPublic").is(true),
+                Criteria.where("user.$id").is(MongoIds.toObjectId(userId)));
+        return VersionStamps.find(mongoTemplate, Criteria.where("_id").is(MongoIds.toObjectId(id)).andOperator(visible),
+                "learning_plans");
+    }
+
+    /**
+     * Replaces the editable fields of a plan with one targeted update.
+     *
+     * @param id The plan ID.
+     * @param ownerId ID of the user making the change; only the owner may.
+     * @param learningPlan Holds the new title, description, topics and visibility.
+     * @return The updated plan.
+     * @throws org.springframework.web.server.ResponseStatusException 403 if the user does not own
+     *         the plan, 404 if it does not exist.
+     */
+    public LearningPlan updateLearningPlan(String id, String ownerId, LearningPlan learningPlan) {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", learningPlan.getTitle());
+        changes.put("description", learningPlan.getDescription());
+        changes.put("topics", learningPlan.getTopics());
+        changes.put("isPublic", learningPlan.isPublic());
+        return patchLearningPlan(id, ownerId, changes, null);
+    }
+
+    /**
+     * Changes only the given fields of a plan, as one atomic update that also
+     * checks ownership and, if given, the version the client last saw.
+     *
+     * @param changes JSON property to new value; null removes the field.
+     * @param expectedVersion Version from the client's If-Match, or null.
+     * @throws IllegalArgumentException if a field cannot be changed or has the wrong type.
+     * @throws org.springframework.web.server.ResponseStatusException 403, 404 or 412.
+     */
+    public LearningPlan patchLearningPlan(String id, String ownerId, Map<String, Object> changes,
+                                          Long expectedVersion) {
+        Criteria ownedByUser = Criteria.where("user.$id").is(MongoIds.toObjectId(ownerId));
+        return documentPatcher.patch(LearningPlan.class, id, ownedByUser, changes, PATCHABLE_FIELDS,
+                Map.of("updatedAt", new Date()), expectedVersion).document();
+    }
+
+    // Atomic, so concurrent imports of a popular plan do not overwrite each other's follower
+    public void addFollower(String planId, String userId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(planId)),
+                VersionStamps.touch(new Update().addToSet("followers", userId)), LearningPlan.class);
     }
 
     public boolean deleteLearningPlan(String id) {
@@ -0,0 +1,140 @@
+package com.app.learnly.service;
+
+import com.app.learnly.util.MongoIds;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves likes stored with {@code user}/{@code post} DBRefs to the plain
+ * {@code userId}/{@code postId} fields, in the background after startup.
+ * A legacy like whose pair already exists in the new form (a duplicate from
+ * before the unique index, or a re-like during the migration) is deleted;
+ * the nightly counter repair then corrects the post's like count. Until the
+ * migration has finished, {@link LikeService} migrates the like of a pair
+ * it is about to like or unlike first, so a legacy like is never missed or
+ * doubled.
+ */
+@Service
+public class LikeMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeMigrationService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile boolean finished;
+
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("postId").exists(false).and("post").exists(true)).limit(BATCH_SIZE);
+        query.fields().include("user", "post");
+
+        int migrated = 0;
+        int duplicates = 0;
+        try {
+            List<Document> batch;
+            while (!(batch = mongoTemplate.find(query, Document.class, "likes")).isEmpty()) {
+                int[] result = migrateBatch(batch);
+                migrated += result[0];
+                duplicates += result[1];
+            }
+            finished = true;
+            if (migrated + duplicates > 0) {
+                log.info("Migrated {} likes to plain ids and removed {} duplicate or broken ones in {} ms",
+                        migrated, duplicates, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            log.error("Like migration failed after {} likes; it resumes on the next start", migrated, e);
+        }
+    }
+
+    /**
+     * Moves a user's legacy like of a post, if there is one, to the plain
+     * id form. Does nothing once every like has been migrated.
+     */
+    public void migrateLike(String postId, String userId) {
+        if (finished) {
+            return;
+        }
+        Query legacy = Query.query(Criteria.where("post.$id").is(MongoIds.toObjectId(postId))
+                .and("user.$id").is(MongoIds.toObjectId(userId)));
+        try {
+            mongoTemplate.updateFirst(legacy, new Update()
+                    .set("userId", userId)
+                    .set("postId", postId)
+                    .unset("user")
+                    .unset("post"), "likes");
+        } catch (DuplicateKeyException e) {
+            // The pair is already liked in the new form
+            mongoTemplate.remove(legacy, "likes");
+        }
+    }
+
+    // Returns {migrated, removed}
+    private int[] migrateBatch(List<Document> likes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "likes");
+        List<Object> ids = new ArrayList<>(likes.size());
+        List<Object> unusable = new ArrayList<>();
+        for (Document like : likes) {
+            Object userId = refId(like.get("user"));
+            Object postId = refId(like.get("post"));
+            if (userId == null || postId == null) {
+                unusable.add(like.get("_id"));
+                continue;
+            }
+            ids.add(like.get("_id"));
+            bulk.updateOne(Query.query(Criteria.where("_id").is(like.get("_id"))), new Update()
+                    .set("userId", userId.toString())
+                    .set("postId", postId.toString())
+                    .unset("user")
+                    .unset("post"));
+        }
+
+        List<Object> duplicates = new ArrayList<>(unusable);
+        int migrated = 0;
+        if (!ids.isEmpty()) {
+            try {
+                migrated = bulk.execute().getModifiedCount();
+            } catch (BulkOperationException e) {
+                migrated = e.getResult().getModifiedCount();
+                e.getErrors().forEach(error -> {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        duplicates.add(ids.get(error.getIndex()));
+                    } else {
+                        throw e;
+                    }
+                });
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(duplicates)), "likes");
+        }
+        return new int[]{migrated, duplicates.size()};
+    }
+
+    private static Object refId(Object value) {
+        return value instanceof DBRef ref ? ref.getId() : null;
+    }
+}
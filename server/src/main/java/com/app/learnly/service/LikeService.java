@@ -1,58 +1,201 @@
 package com.app.learnly.service;
 
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.Like;
+import com.app.learnly.model.LikeView;
 import com.app.learnly.model.Post;
 import com.app.learnly.model.User;
-import com.app.learnly.repository.LikeRepository;
 import com.app.learnly.repository.PostRepository;
-import com.app.learnly.repository.UserRepository;
+import com.app.learnly.util.PageCursor;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 public class LikeService {
 
     @Autowired
-    private LikeRepository likeRepository;
+    private PostRepository postRepository;
 
     @Autowired
-    private PostRepository postRepository;
+    private EngagementCounterService engagementCounterService;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private TrendingTagService trendingTagService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @Autowired
-    private UserRepository userRepository;
+    private LikeWriteBuffer likeWriteBuffer;
 
+    @Autowired
+    private LikeMigrationService likeMigrationService;
+
+    /**
+     * Likes a post. Idempotent: liking a post again returns the existing like.
+     * The like is written with one upsert on the unique (postId, userId)
+     * index, so concurrent requests cannot create duplicates and only the
+     * request that inserted the like moves the counter. In write-behind mode
+     * the like is only buffered and the post is checked when it is flushed.
+     *
+     * <p>Round trips: the caller's user id, the upsert and, only when the
+     * like is new, the counter increment, which also confirms the post
+     * exists. A repeated like stops after the upsert. While
+     * {@link LikeMigrationService} is still running, one more update moves a
+     * legacy like of the pair first. The post is not checked before the
+     * upsert, since that would cost every like a round trip; a like of a
+     * missing post (deleted since the client loaded it) is removed again.
+     * See LikeServiceBenchmark for latency against the DBRef path this
+     * replaced.
+     *
+     * @throws ResponseStatusException 401 without a user, 404 if the post does not exist.
+     */
     public Like likePost(String postId, OAuth2User principal) {
-        String providerId = principal.getAttribute("sub") != null
-                ? principal.getAttribute("sub")
-                : principal.getAttribute("id");
-        if (providerId == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated");
+        String userId = resolveUserId(principal);
+        likeMigrationService.migrateLike(postId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.like(postId, userId);
+            return new Like(userId, postId);
+        }
+
+        ObjectId id = new ObjectId();
+        Like like = new Like(userId, postId);
+        like.setId(id.toHexString());
+        Query query = Query.query(Criteria.where("postId").is(postId).and("userId").is(userId));
+        Update update = new Update()
+                .setOnInsert("_id", id)
+                .setOnInsert("createdAt", like.getCreatedAt());
+        Like existing;
+        try {
+            existing = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Like.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent request inserted the same like first
+            existing = mongoTemplate.findOne(query, Like.class);
+        }
+        if (existing != null) {
+            return existing;
+        }
+
+        Post post = engagementCounterService.incrementLikeCount(postId);
+        if (post == null) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), Like.class);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        trendingTagService.recordLike(post.getTags());
+        return like;
+    }
+
+    /**
+     * Removes a like with one delete. Idempotent: unliking a post that is not
+     * liked does nothing.
+     *
+     * @throws ResponseStatusException 401 without a user.
+     */
+    public void unlikePost(String postId, OAuth2User principal) {
+        String userId = resolveUserId(principal);
+        likeMigrationService.migrateLike(postId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.unlike(postId, userId);
+            return;
+        }
+
+        Query query = Query.query(Criteria.where("postId").is(postId).and("userId").is(userId));
+        if (mongoTemplate.remove(query, Like.class).getDeletedCount() > 0) {
+            engagementCounterService.adjustLikeCount(postId, -1);
         }
+    }
 
-        Optional<User> userOptional = userRepository.findByProviderId(providerId);
-        User user = userOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with providerId: " + providerId));
+    public List<LikeView> getLikesByPostId(String postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        Query query = new Query(Criteria.where("postId").is(postId));
+        List<LikeView> likes = mongoTemplate.find(query, LikeView.class, "likes");
+        if (likeWriteBuffer.isEnabled()) {
+            likes = likeWriteBuffer.merge(postId, likes);
+        }
+        return hydrationService.hydrateLikes(likes);
+    }
 
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+    /**
+     * Pages through the users who liked a post, newest like first. Reads
+     * only the liker ids from the likes index and the liker summaries in one
+     * batch; likers whose account was deleted are left out. Likes still in
+     * the write-behind buffer show up once they are flushed.
+     *
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size, clamped to the allowed range.
+     * @throws ResponseStatusException 404 if the post does not exist.
+     */
+    public CursorPage<AuthorSummary> getLikers(String postId, PageCursor after, int limit) {
+        int pageSize = PostService.clampPageSize(limit);
+        Criteria criteria = Criteria.where("postId").is(postId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, after.olderThan("createdAt"));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include("userId", "createdAt");
+        List<Like> likes = mongoTemplate.find(query, Like.class);
+
+        // Only an empty first page needs to tell a missing post from one without likes
+        if (likes.isEmpty() && after == null && !postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
 
-        Optional<Like> existingLike = likeRepository.findByUserAndPost(user, post);
-        if (existingLike.isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "User already liked this post");
+        boolean hasMore = likes.size() > pageSize;
+        if (hasMore) {
+            likes = likes.subList(0, pageSize);
+        }
+        Map<String, AuthorSummary> authors = hydrationService.loadAuthors(likes.stream().map(Like::getUserId).toList());
+        List<AuthorSummary> likers = new ArrayList<>(likes.size());
+        for (Like like : likes) {
+            AuthorSummary author = authors.get(like.getUserId());
+            if (author != null) {
+                likers.add(author);
+            }
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Like last = likes.get(likes.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
         }
+        return new CursorPage<>(likers, nextCursor);
+    }
 
-        Like like = new Like(user, post);
-        return likeRepository.save(like);
+    /**
+     * @return The post's like count from its denormalized counter.
+     * @throws ResponseStatusException 404 if the post does not exist.
+     */
+    public long countLikes(String postId) {
+        return engagementCounterService.getCounts(postId)
+                .map(Post::getLikeCount)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
     }
 
-    public void unlikePost(String postId, OAuth2User principal) {
+    // Only the id is read, not the whole user document
+    private String resolveUserId(OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
                 : principal.getAttribute("id");
@@ -60,26 +203,12 @@ public class LikeService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated");
         }
 
-        Optional<User> userOptional = userRepository.findByProviderId(providerId);
-        User user = userOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with providerId: " + providerId));
-
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-
-        Optional<Like> likeOptional = likeRepository.findByUserAndPost(user, post);
-        if (!likeOptional.isPresent()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Like not found");
+        Query query = Query.query(Criteria.where("providerId").is(providerId));
+        query.fields().include("_id");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with providerId: " + providerId);
         }
-
-        likeRepository.delete(likeOptional.get());
-    }
-
-    public List<Like> getLikesByPostId(String postId) {
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        return likeRepository.findByPost(post);
+        return user.getId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,369 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Like;
+import com.app.learnly.model.LikeView;
+import com.app.learnly.model.Post;
+import com.app.learnly.util.VersionStamps;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind mode for likes ({@code likes.write-behind.enabled}).
+ * Like and unlike requests only record the desired state of the
+ * (post, user) pair in memory; repeated toggles of the same pair collapse
+ * into one entry. The net changes are written in one unordered bulk write
+ * on a timer, as soon as the buffer reaches its size threshold, and on
+ * shutdown. After each flush the like counters of the affected posts are
+ * recounted, so they catch up within one flush interval.
+ *
+ * <p>Entries are spread over lock stripes by (post, user), so a viral post
+ * does not serialize its likers on one lock; within a stripe they are
+ * grouped by post so a post's pending likes can be merged into reads.
+ */
+@Service
+public class LikeWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeWriteBuffer.class);
+
+    private static final int STRIPES = 16;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TrendingTagService trendingTagService;
+
+    // Lazy so size-triggered flushes go through the async proxy of this bean
+    @Lazy
+    @Autowired
+    private LikeWriteBuffer self;
+
+    @Value("${likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${likes.write-behind.flush-threshold:5000}")
+    private int flushThreshold;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger depth = new AtomicInteger();
+
+    // Only one flush writes at a time, so a pair's changes reach Mongo in order
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder likesWritten = new LongAdder();
+    private final LongAdder unlikesWritten = new LongAdder();
+    private final LongAdder changesDropped = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastFlushNanos;
+
+    // Desired state of a pair and when it was requested
+    private record Pending(boolean liked, Date at) {
+    }
+
+    private static final class Stripe {
+        // postId -> userId -> pending state
+        private Map<String, Map<String, Pending>> pending = new HashMap<>();
+    }
+
+    public LikeWriteBuffer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void like(String postId, String userId) {
+        record(postId, userId, true);
+    }
+
+    public void unlike(String postId, String userId) {
+        record(postId, userId, false);
+    }
+
+    private void record(String postId, String userId, boolean liked) {
+        Stripe stripe = stripeOf(postId, userId);
+        boolean added;
+        synchronized (stripe) {
+            added = stripe.pending.computeIfAbsent(postId, key -> new HashMap<>())
+                    .put(userId, new Pending(liked, new Date())) == null;
+        }
+        if (added && depth.incrementAndGet() >= flushThreshold) {
+            self.flushAsync();
+        }
+    }
+
+    /**
+     * @return The buffered state of a pair: true liked, false unliked, null if nothing is pending.
+     */
+    public Boolean pendingState(String postId, String userId) {
+        Stripe stripe = stripeOf(postId, userId);
+        synchronized (stripe) {
+            Map<String, Pending> users = stripe.pending.get(postId);
+            Pending pending = users != null ? users.get(userId) : null;
+            return pending != null ? pending.liked() : null;
+        }
+    }
+
+    /**
+     * Applies the buffered changes of a post to likes read from Mongo:
+     * buffered unlikes are removed and buffered likes are added.
+     */
+    public List<LikeView> merge(String postId, List<LikeView> stored) {
+        Map<String, Pending> pending = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Map<String, Pending> users = stripe.pending.get(postId);
+                if (users != null) {
+                    pending.putAll(users);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return stored;
+        }
+
+        List<LikeView> merged = new ArrayList<>(stored.size() + pending.size());
+        for (LikeView like : stored) {
+            if (!pending.containsKey(like.getAuthorId())) {
+                merged.add(like);
+            }
+        }
+        pending.forEach((userId, state) -> {
+            if (state.liked()) {
+                LikeView like = new LikeView();
+                like.setUserId(userId);
+                like.setPostId(postId);
+                like.setCreatedAt(state.at());
+                merged.add(like);
+            }
+        });
+        return merged;
+    }
+
+    private Stripe stripeOf(String postId, String userId) {
+        return stripes[Math.floorMod(31 * postId.hashCode() + userId.hashCode(), STRIPES)];
+    }
+
+    @Async("likeFlushExecutor")
+    public void flushAsync() {
+        flush();
+    }
+
+    /**
+     * Writes the buffered changes. Skipped if another flush is running;
+     * whatever it did not take is written by the next one.
+     */
+    @Scheduled(fixedDelayString = "${likes.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (flushLock.tryLock()) {
+            try {
+                flushLocked();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    // Waits for a running flush, then writes what is left
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            flushLocked();
+            if (depth.get() > 0) {
+                log.error("{} buffered like changes could not be written before shutdown", depth.get());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<String, Map<String, Pending>> changes = drain();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            write(changes);
+            flushes.increment();
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            restore(changes);
+            log.warn("Flushing buffered likes failed, {} changes kept for the next attempt", depth.get(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastFlushNanos = elapsed;
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulate(elapsed);
+        }
+    }
+
+    // Swaps out every stripe's map; requests arriving meanwhile fill the new ones
+    private Map<String, Map<String, Pending>> drain() {
+        Map<String, Map<String, Pending>> changes = new HashMap<>();
+        int drained = 0;
+        for (Stripe stripe : stripes) {
+            Map<String, Map<String, Pending>> taken;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                taken = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            for (Map.Entry<String, Map<String, Pending>> entry : taken.entrySet()) {
+                drained += entry.getValue().size();
+                changes.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).putAll(entry.getValue());
+            }
+        }
+        depth.addAndGet(-drained);
+        return changes;
+    }
+
+    // Puts failed changes back unless a newer change for the same pair arrived
+    private void restore(Map<String, Map<String, Pending>> changes) {
+        changes.forEach((postId, users) -> users.forEach((userId, state) -> {
+            Stripe stripe = stripeOf(postId, userId);
+            boolean restored;
+            synchronized (stripe) {
+                restored = stripe.pending.computeIfAbsent(postId, key -> new HashMap<>())
+                        .putIfAbsent(userId, state) == null;
+            }
+            if (restored) {
+                depth.incrementAndGet();
+            }
+        }));
+    }
+
+    private void write(Map<String, Map<String, Pending>> changes) {
+        // Also drops likes of posts deleted while they were buffered
+        Query postQuery = Query.query(Criteria.where("_id").in(changes.keySet()));
+        postQuery.fields().include("tags");
+        Map<String, Post> posts = new HashMap<>();
+        mongoTemplate.find(postQuery, Post.class).forEach(post -> posts.put(post.getId(), post));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class);
+        List<String> opPostIds = new ArrayList<>();
+        int likes = 0;
+        int unlikes = 0;
+        for (Map.Entry<String, Map<String, Pending>> entry : changes.entrySet()) {
+            String postId = entry.getKey();
+            if (!posts.containsKey(postId)) {
+                changesDropped.add(entry.getValue().size());
+                continue;
+            }
+            for (Map.Entry<String, Pending> user : entry.getValue().entrySet()) {
+                Query pair = Query.query(Criteria.where("postId").is(postId).and("userId").is(user.getKey()));
+                if (user.getValue().liked()) {
+                    bulk.upsert(pair, new Update().setOnInsert("createdAt", user.getValue().at()));
+                    likes++;
+                } else {
+                    bulk.remove(pair);
+                    unlikes++;
+                }
+                opPostIds.add(postId);
+            }
+        }
+        if (opPostIds.isEmpty()) {
+            return;
+        }
+
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // A duplicate key means another instance inserted the same like, which is the desired state
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+            result = e.getResult();
+        }
+        likesWritten.add(likes);
+        unlikesWritten.add(unlikes);
+
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            trendingTagService.recordLike(posts.get(opPostIds.get(upsert.getIndex())).getTags());
+        }
+        recount(new LinkedHashSet<>(opPostIds));
+    }
+
+    // One grouped count on the (postId, userId) index for all posts; cheaper than reconciling per-pair deltas
+    private void recount(Set<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Like.class, Document.class)) {
+            counts.put(group.getString("_id"), group.get("count", Number.class).longValue());
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        for (String postId : postIds) {
+            // Posts whose last like was just removed have no group
+            long count = counts.getOrDefault(postId, 0L);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(postId)),
+                    VersionStamps.touch(new Update().set("likeCount", count)));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * @return Buffer depth, flush outcomes and latency, and changes written since startup.
+     */
+    public Map<String, Object> snapshot() {
+        long count = flushes.sum() + flushFailures.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("depth", depth.get());
+        result.put("flushThreshold", flushThreshold);
+        result.put("flushes", flushes.sum());
+        result.put("flushFailures", flushFailures.sum());
+        result.put("lastFlushMicros", TimeUnit.NANOSECONDS.toMicros(lastFlushNanos));
+        result.put("meanFlushMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(flushNanos.sum() / count));
+        result.put("maxFlushMicros", TimeUnit.NANOSECONDS.toMicros(maxFlushNanos.get()));
+        result.put("likesWritten", likesWritten.sum());
+        result.put("unlikesWritten", unlikesWritten.sum());
+        result.put("changesDropped", changesDropped.sum());
+        return result;
+    }
+}
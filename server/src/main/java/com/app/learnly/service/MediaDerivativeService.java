@@ -0,0 +1,187 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.MediaObject;
+import com.app.learnly.model.MediaVariant;
+import com.app.learnly.model.Post;
+import com.app.learnly.util.VersionStamps;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates resized, recompressed JPEG variants of the images of a post in
+ * the background and records them on the post, together with one thumbnail
+ * URL per media item for list views. Only images held in the local media
+ * store are processed; other URLs are passed through as their own thumbnail.
+ */
+@Service
+public class MediaDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaDerivativeService.class);
+
+    // Types the JDK can decode; animated GIFs would also lose their animation, so they are served as uploaded
+    private static final Set<String> RESIZABLE_TYPES = Set.of("image/jpeg", "image/png");
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${media.variants.widths:320,640,1280}")
+    private int[] widths;
+
+    @PostConstruct
+    void sortWidths() {
+        Arrays.sort(widths);
+    }
+
+    /**
+     * Creates the variants for a saved post. Runs on the bounded media
+     * executor; the post is only updated if its media did not change meanwhile.
+     */
+    @Async("mediaExecutor")
+    public void generateVariants(Post post) {
+        List<String> mediaUrls = post.getMediaUrls();
+        if (mediaUrls == null || mediaUrls.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<MediaVariant> variants = new ArrayList<>();
+        List<String> thumbnailUrls = new ArrayList<>(mediaUrls.size());
+        for (String url : mediaUrls) {
+            List<MediaVariant> created = createVariants(url, post.getUser() != null ? post.getUser().getId() : null);
+            variants.addAll(created);
+            thumbnailUrls.add(created.isEmpty() ? url : created.get(0).getUrl());
+        }
+        if (variants.isEmpty()) {
+            return;
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(post.getId()).and("mediaUrls").is(mediaUrls));
+        Update update = VersionStamps.touch(new Update()
+                .set("mediaVariants", variants)
+                .set("thumbnailUrls", thumbnailUrls));
+        mongoTemplate.updateFirst(query, update, Post.class);
+        log.debug("Created {} media variants for post {} in {} ms",
+                variants.size(), post.getId(), System.currentTimeMillis() - start);
+    }
+
+    // Smallest first; widths at or above the original's are skipped, images are never upscaled
+    private List<MediaVariant> createVariants(String url, String ownerId) {
+        MediaObject source = mediaStorageService.find(MediaStorageService.hashOf(url));
+        if (source == null || !RESIZABLE_TYPES.contains(source.getContentType())) {
+            return List.of();
+        }
+
+        List<MediaVariant> variants = new ArrayList<>();
+        try {
+            BufferedImage image = read(mediaStorageService.pathOf(source.getHash()), widths[widths.length - 1]);
+            if (image == null) {
+                return List.of();
+            }
+            for (int width : widths) {
+                if (width >= image.getWidth()) {
+                    break;
+                }
+                int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+                BufferedImage resized = resize(image, width, height);
+                variants.add(new MediaVariant(url, writeJpeg(resized, ownerId), width, height));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not create variants of {}", url, e);
+            return List.of();
+        }
+        return variants;
+    }
+
+    /**
+     * Decodes an image, subsampling while reading when it is much larger
+     * than the biggest variant so huge uploads do not need a full-size
+     * bitmap on the heap.
+     */
+    private static BufferedImage read(Path path, int maxWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, reader.getWidth(0) / (maxWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Drawn onto an opaque white canvas, since JPEG has no alpha channel
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private String writeJpeg(BufferedImage image, String ownerId) throws IOException {
+        Path temp = mediaStorageService.createTempFile(".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            MediaObject stored = mediaStorageService.store(temp, "image/jpeg", ownerId);
+            return MediaStorageService.urlOf(stored.getHash());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.MediaObject;
+import com.app.learnly.util.ByteRange;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed media store on the local file system. Uploads are
+ * streamed to a temporary file while their SHA-256 is computed and then
+ * moved to {@code root/ab/cd/<hash>}; a file that is already stored is not
+ * written twice. Neither direction holds a whole file on the heap: uploads
+ * are copied through a small buffer, and files are served with the
+ * container's sendfile when it supports it and with
+ * {@link FileChannel#transferTo} otherwise.
+ */
+@Service
+public class MediaStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStorageService.class);
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String URL_PREFIX = "/api/media/";
+
+    // Only types that browsers render inertly; anything else could be used to serve script from our origin
+    private static final Set<String> ALLOWED_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp",
+            "video/mp4", "video/webm", "video/quicktime",
+            "application/pdf");
+
+    // Tomcat's sendfile hand-off; below this size a plain copy is as cheap
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${media.storage.root:media-store}")
+    private String storageRoot;
+
+    private Path root;
+    private Path tmp;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(storageRoot).toAbsolutePath().normalize();
+        tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    /**
+     * Stores an uploaded file, or finds the identical file already stored.
+     *
+     * @param file The multipart file; read once as a stream.
+     * @param uploaderId ID of the uploading user.
+     * @return The stored media object.
+     * @throws IllegalArgumentException if the file is empty or of a type that is not allowed.
+     */
+    public MediaObject store(MultipartFile file, String uploaderId) {
+        String contentType = file.getContentType();
+        if (file.isEmpty() || contentType == null || !ALLOWED_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported or empty media file");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return store(in, contentType, uploaderId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores a file produced by the server itself, e.g. an image derivative.
+     * The source file is left in place.
+     */
+    public MediaObject store(Path source, String contentType, String uploaderId) {
+        try (InputStream in = Files.newInputStream(source)) {
+            return store(in, contentType, uploaderId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an empty temporary file inside the store, on the same file
+     * system as the stored files.
+     */
+    public Path createTempFile(String suffix) throws IOException {
+        return Files.createTempFile(tmp, "derived-", suffix);
+    }
+
+    private MediaObject store(InputStream source, String contentType, String uploaderId) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(tmp, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(source, digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            // Already stored: the temporary copy is dropped. Two concurrent uploads
+            // of the same bytes both rename onto the target, which is harmless.
+            Path target = pathOf(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                // Same file system, so this is a rename
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                temp = null;
+            }
+
+            MediaObject existing = mongoTemplate.findById(hash, MediaObject.class);
+            if (existing != null) {
+                return existing;
+            }
+            MediaObject media = new MediaObject();
+            media.setHash(hash);
+            media.setContentType(contentType);
+            media.setSize(size);
+            media.setUploadedBy(uploaderId);
+            media.setCreatedAt(new Date());
+            try {
+                return mongoTemplate.insert(media);
+            } catch (DuplicateKeyException e) {
+                // A concurrent upload of the same file won
+                return mongoTemplate.findById(hash, MediaObject.class);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * @return The metadata of a stored file, or null if the hash is unknown or malformed.
+     */
+    public MediaObject find(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        MediaObject media = mongoTemplate.findById(hash, MediaObject.class);
+        return media != null && Files.isRegularFile(pathOf(hash)) ? media : null;
+    }
+
+    /**
+     * Writes a stored file, or a range of it, to the response body. Headers
+     * must already be set.
+     */
+    public void transfer(MediaObject media, ByteRange range, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path path = pathOf(media.getHash());
+        long start = range != null ? range.start() : 0;
+        long length = range != null ? range.length() : media.getSize();
+        if (length == 0) {
+            return;
+        }
+
+        if (length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * @return The URL a stored file is served under.
+     */
+    public static String urlOf(String hash) {
+        return URL_PREFIX + hash;
+    }
+
+    /**
+     * @return The hash of a URL served by this store, or null for any other URL.
+     */
+    public static String hashOf(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String hash = url.substring(URL_PREFIX.length());
+        return HASH.matcher(hash).matches() ? hash : null;
+    }
+
+    Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary upload {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.PostDeletion;
+import com.app.learnly.model.Timeline;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.VersionStamps;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Background cascade for deleted posts. {@link PostService#deletePost}
+ * removes the post and records a {@link PostDeletion}; this worker then
+ * removes the post's likes and comments, its saved-post references and its
+ * timeline entries in small bulk batches with a pause in between, so a
+ * popular post does not flood the database. Failed jobs are retried with
+ * exponential backoff; every step is idempotent, so a retry simply starts over.
+ */
+@Service
+public class PostCleanupService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostCleanupService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // A RUNNING job whose lease ran out belonged to a worker that died; it is claimed again
+    private static final long LEASE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowService followService;
+
+    // Lazy so the drain call from PostService goes through the async proxy of this bean
+    @Lazy
+    @Autowired
+    private PostCleanupService self;
+
+    @Value("${post-cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Value("${post-cleanup.batch-pause-ms:50}")
+    private long batchPauseMillis;
+
+    private final LongAdder likesDeleted = new LongAdder();
+    private final LongAdder commentsDeleted = new LongAdder();
+    private final LongAdder savedReferencesRemoved = new LongAdder();
+    private final LongAdder timelinesUpdated = new LongAdder();
+    private final LongAdder jobsCompleted = new LongAdder();
+    private final LongAdder jobsRetried = new LongAdder();
+    private final LongAdder jobsFailed = new LongAdder();
+
+    /**
+     * Records the cleanup of a deleted post and wakes the worker. Returns as
+     * soon as the job is stored.
+     *
+     * @param postId ID of the deleted post.
+     * @param authorId ID of its author, whose followers' timelines carry the post.
+     */
+    public void enqueue(String postId, String authorId) {
+        Date now = new Date();
+        PostDeletion deletion = new PostDeletion();
+        deletion.setPostId(postId);
+        deletion.setAuthorId(authorId);
+        deletion.setStatus(PostDeletion.PENDING);
+        deletion.setNextAttemptAt(now);
+        deletion.setCreatedAt(now);
+        mongoTemplate.save(deletion);
+        self.drain();
+    }
+
+    /**
+     * Works off due jobs one at a time until none is left. Also runs on a
+     * timer to pick up retries and jobs left behind by a restart.
+     */
+    @Async("cleanupExecutor")
+    @Scheduled(fixedDelayString = "${post-cleanup.poll-interval-ms:30000}")
+    public void drain() {
+        PostDeletion job;
+        while ((job = claimNext()) != null) {
+            process(job);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private PostDeletion claimNext() {
+        Date now = new Date();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(PostDeletion.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(PostDeletion.RUNNING).and("leaseUntil").lt(now)));
+        Update update = new Update()
+                .set("status", PostDeletion.RUNNING)
+                .set("leaseUntil", new Date(now.getTime() + LEASE_MILLIS));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                PostDeletion.class);
+    }
+
+    private void process(PostDeletion job) {
+        String postId = job.getPostId();
+        try {
+            long likes = deleteInBatches("likes", Criteria.where("postId").is(postId));
+            likesDeleted.add(likes);
+            recordProgress(postId, "likesDeleted", likes);
+
+            long comments = deleteInBatches("comments", Criteria.where("post.$id").is(MongoIds.toObjectId(postId)));
+            commentsDeleted.add(comments);
+            recordProgress(postId, "commentsDeleted", comments);
+
+            long savedReferences = removeSavedReferences(postId);
+            savedReferencesRemoved.add(savedReferences);
+            recordProgress(postId, "savedReferencesRemoved", savedReferences);
+
+            long timelines = removeTimelineEntries(postId, job.getAuthorId());
+            timelinesUpdated.add(timelines);
+            recordProgress(postId, "timelinesUpdated", timelines);
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)),
+                    new Update().set("status", PostDeletion.DONE).set("completedAt", new Date())
+                            .unset("leaseUntil").unset("lastError"),
+                    PostDeletion.class);
+            jobsCompleted.increment();
+        } catch (InterruptedException e) {
+            // Shutting down; the lease runs out and the job is picked up again
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(job, e);
+        }
+    }
+
+    private void fail(PostDeletion job, RuntimeException e) {
+        int attempts = job.getAttempts() + 1;
+        boolean giveUp = attempts >= MAX_ATTEMPTS;
+        Update update = new Update()
+                .set("attempts", attempts)
+                .set("status", giveUp ? PostDeletion.FAILED : PostDeletion.PENDING)
+                .set("nextAttemptAt", new Date(System.currentTimeMillis() + (RETRY_BASE_MILLIS << (attempts - 1))))
+                .set("lastError", String.valueOf(e.getMessage()))
+                .unset("leaseUntil");
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getPostId())), update,
+                    PostDeletion.class);
+        } catch (RuntimeException updateError) {
+            log.warn("Could not record failure of cleanup for post {}", job.getPostId(), updateError);
+        }
+        if (giveUp) {
+            jobsFailed.increment();
+            log.error("Cleanup for post {} failed after {} attempts", job.getPostId(), attempts, e);
+        } else {
+            jobsRetried.increment();
+            log.warn("Cleanup for post {} failed, attempt {} of {}", job.getPostId(), attempts, MAX_ATTEMPTS, e);
+        }
+    }
+
+    // Deletes by _id batches so no single command removes an unbounded number of documents
+    private long deleteInBatches(String collection, Criteria criteria) throws InterruptedException {
+        long total = 0;
+        while (true) {
+            List<Object> ids = findIds(collection, criteria);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            total += mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+            pause();
+        }
+    }
+
+    private long removeSavedReferences(String postId) throws InterruptedException {
+        Criteria savedBy = Criteria.where("savedPosts").is(postId);
+        long total = 0;
+        while (true) {
+            List<Object> userIds = findIds("users", savedBy);
+            if (userIds.isEmpty()) {
+                return total;
+            }
+            total += mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(userIds)),
+                    VersionStamps.touch(new Update().pull("savedPosts", postId)), "users").getModifiedCount();
+            pause();
+        }
+    }
+
+    // The post was pushed to its author and the author's followers; other
+    // readers never had it, and readers who unfollowed since trim it lazily.
+    private long removeTimelineEntries(String postId, String authorId) throws InterruptedException {
+        long total = pullTimelineEntries(List.of(authorId), postId);
+        List<Follow> edges = followService.getFollowerEdges(authorId, null, batchSize);
+        while (!edges.isEmpty()) {
+            total += pullTimelineEntries(edges.stream().map(Follow::getFollowerId).toList(), postId);
+            if (edges.size() < batchSize) {
+                break;
+            }
+            pause();
+            edges = followService.getFollowerEdges(authorId, FollowService.after(edges), batchSize);
+        }
+        return total;
+    }
+
+    private long pullTimelineEntries(List<String> ownerIds, String postId) {
+        Query query = Query.query(Criteria.where("_id").in(ownerIds).and("entries.postId").is(postId));
+        Update update = new Update().pull("entries", new Document("postId", postId));
+        return mongoTemplate.updateMulti(query, update, Timeline.class).getModifiedCount();
+    }
+
+    private List<Object> findIds(String collection, Criteria criteria) {
+        Query query = Query.query(criteria).limit(batchSize);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, collection).stream()
+                .map(doc -> doc.get("_id"))
+                .collect(Collectors.toList());
+    }
+
+    private void recordProgress(String postId, String field, long count) {
+        if (count > 0) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)),
+                    new Update().inc(field, count), PostDeletion.class);
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (batchPauseMillis > 0) {
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+
+    /**
+     * @return Totals removed since startup, job outcomes and the current backlog.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pending", countByStatus(PostDeletion.PENDING));
+        result.put("running", countByStatus(PostDeletion.RUNNING));
+        result.put("failed", countByStatus(PostDeletion.FAILED));
+        result.put("jobsCompleted", jobsCompleted.sum());
+        result.put("jobsRetried", jobsRetried.sum());
+        result.put("jobsFailed", jobsFailed.sum());
+        result.put("likesDeleted", likesDeleted.sum());
+        result.put("commentsDeleted", commentsDeleted.sum());
+        result.put("savedReferencesRemoved", savedReferencesRemoved.sum());
+        result.put("timelinesUpdated", timelinesUpdated.sum());
+        return result;
+    }
+
+    private long countByStatus(String status) {
+        return mongoTemplate.count(Query.query(Criteria.where("status").is(status)), PostDeletion.class);
+    }
+}
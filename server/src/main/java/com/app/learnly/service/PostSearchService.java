@@ -0,0 +1,323 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.Post;
+import com.app.learnly.model.PostView;
+import com.app.learnly.util.TextAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Embedded inverted index over post title, tags and content with BM25
+ * ranking and phrase queries. Updated incrementally by {@link PostService}
+ * and rebuilt from Mongo in the background at startup. Query cost depends on
+ * the posting lists of the query terms, not on the size of the collection.
+ */
+@Service
+public class PostSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchService.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Title and tag terms are counted this many times, a simple field boost
+    private static final int TITLE_BOOST = 3;
+    private static final int TAG_BOOST = 2;
+
+    // Position gap between fields so phrases never match across field boundaries
+    private static final int FIELD_GAP = 100;
+
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]+)\"");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (doc number -> positions of the term in that doc)
+    private final Map<String, Map<Integer, int[]>> postings = new HashMap<>();
+    private final Map<String, Integer> docNumbers = new HashMap<>();
+    private final Map<Integer, IndexedDoc> docs = new HashMap<>();
+    private int nextDocNumber;
+    private long totalLength;
+
+    private record IndexedDoc(String postId, int boostedLength, Set<String> terms,
+                              Map<String, Integer> termFrequencies) {
+    }
+
+    private record Hit(String postId, double score) {
+    }
+
+    /**
+     * Adds or replaces a post in the index.
+     */
+    public void index(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        List<String> titleTerms = TextAnalyzer.analyze(post.getTitle());
+        List<String> tagTerms = new ArrayList<>();
+        if (post.getTags() != null) {
+            post.getTags().forEach(tag -> tagTerms.addAll(TextAnalyzer.analyze(tag)));
+        }
+        List<String> contentTerms = TextAnalyzer.analyze(post.getContent());
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        Map<String, Integer> frequencies = new HashMap<>();
+        int position = 0;
+        position = addField(titleTerms, position, TITLE_BOOST, positions, frequencies) + FIELD_GAP;
+        position = addField(tagTerms, position, TAG_BOOST, positions, frequencies) + FIELD_GAP;
+        addField(contentTerms, position, 1, positions, frequencies);
+        int boostedLength = titleTerms.size() * TITLE_BOOST + tagTerms.size() * TAG_BOOST + contentTerms.size();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(post.getId());
+            int docNumber = nextDocNumber++;
+            docNumbers.put(post.getId(), docNumber);
+            docs.put(docNumber, new IndexedDoc(post.getId(), boostedLength,
+                    new HashSet<>(positions.keySet()), frequencies));
+            totalLength += boostedLength;
+            positions.forEach((term, list) -> postings
+                    .computeIfAbsent(term, key -> new HashMap<>())
+                    .put(docNumber, list.stream().mapToInt(Integer::intValue).toArray()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int addField(List<String> terms, int start, int boost,
+                                Map<String, List<Integer>> positions, Map<String, Integer> frequencies) {
+        int position = start;
+        for (String term : terms) {
+            positions.computeIfAbsent(term, key -> new ArrayList<>()).add(position++);
+            frequencies.merge(term, boost, Integer::sum);
+        }
+        return position;
+    }
+
+    public void remove(String postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String postId) {
+        Integer docNumber = docNumbers.remove(postId);
+        if (docNumber == null) {
+            return;
+        }
+        IndexedDoc doc = docs.remove(docNumber);
+        totalLength -= doc.boostedLength();
+        for (String term : doc.terms()) {
+            Map<Integer, int[]> list = postings.get(term);
+            if (list != null) {
+                list.remove(docNumber);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the posts collection without blocking startup.
+     */
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Query query = new Query().cursorBatchSize(500);
+        query.fields().include("title", "content", "tags");
+        int count = 0;
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                index(post);
+                count++;
+            }
+            log.info("Post search index rebuilt with {} posts in {} ms", count, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Post search index rebuild failed after {} posts", count, e);
+        }
+    }
+
+    /**
+     * Searches posts. Bare words are ranked with BM25; quoted phrases must
+     * appear verbatim (after analysis) in the title, tags or content.
+     *
+     * @param queryText The query, e.g. {@code spring "dependency injection"}.
+     * @param cursor Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return The page of matching posts, best match first.
+     * @throws IllegalArgumentException if the query has no searchable terms or the cursor is malformed.
+     */
+    public CursorPage<PostView> search(String queryText, String cursor, int limit) {
+        int pageSize = PostService.clampPageSize(limit);
+        Hit after = decodeCursor(cursor);
+
+        List<List<String>> phrases = new ArrayList<>();
+        Matcher matcher = PHRASE.matcher(queryText == null ? "" : queryText);
+        while (matcher.find()) {
+            List<String> phrase = TextAnalyzer.analyze(matcher.group(1));
+            if (!phrase.isEmpty()) {
+                phrases.add(phrase);
+            }
+        }
+        Set<String> terms = new HashSet<>(TextAnalyzer.analyze(queryText == null ? "" : queryText.replace('"', ' ')));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Too many query terms");
+        }
+
+        List<Hit> page;
+        lock.readLock().lock();
+        try {
+            page = topHits(terms, phrases, after, pageSize + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+        List<PostView> posts = hydrationService.loadPostsInOrder(page.stream().map(Hit::postId).toList());
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    // Best first: higher score, then lower post id for a stable order across pages
+    private static final Comparator<Hit> RANK = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::postId);
+
+    private List<Hit> topHits(Set<String> terms, List<List<String>> phrases, Hit after, int max) {
+        int docCount = docs.size();
+        if (docCount == 0) {
+            return List.of();
+        }
+        double averageLength = (double) totalLength / docCount;
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Integer, int[]> list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+            for (Integer docNumber : list.keySet()) {
+                IndexedDoc doc = docs.get(docNumber);
+                int tf = doc.termFrequencies().get(term);
+                double norm = K1 * (1 - B + B * doc.boostedLength() / averageLength);
+                scores.merge(docNumber, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+
+        // Bounded min-heap of the best hits after the cursor
+        PriorityQueue<Hit> best = new PriorityQueue<>(RANK.reversed());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            IndexedDoc doc = docs.get(entry.getKey());
+            Hit hit = new Hit(doc.postId(), entry.getValue());
+            if (after != null && RANK.compare(hit, after) <= 0) {
+                continue;
+            }
+            if (best.size() == max && RANK.compare(hit, best.peek()) >= 0) {
+                continue;
+            }
+            if (!matchesPhrases(entry.getKey(), phrases)) {
+                continue;
+            }
+            best.add(hit);
+            if (best.size() > max) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANK);
+        return hits;
+    }
+
+    private boolean matchesPhrases(int docNumber, List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            if (!matchesPhrase(docNumber, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesPhrase(int docNumber, List<String> phrase) {
+        int[][] positions = new int[phrase.size()][];
+        for (int i = 0; i < phrase.size(); i++) {
+            Map<Integer, int[]> list = postings.get(phrase.get(i));
+            positions[i] = list != null ? list.get(docNumber) : null;
+            if (positions[i] == null) {
+                return false;
+            }
+        }
+        for (int start : positions[0]) {
+            boolean match = true;
+            for (int i = 1; i < positions.length && match; i++) {
+                match = contains(positions[i], start + i);
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Positions are ascending, so binary search
+    private static boolean contains(int[] sorted, int value) {
+        return Arrays.binarySearch(sorted, value) >= 0;
+    }
+
+    private static String encodeCursor(Hit hit) {
+        String raw = Double.doubleToLongBits(hit.score()) + ":" + hit.postId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new Hit(raw.substring(separator + 1), Double.longBitsToDouble(Long.parseLong(raw.substring(0, separator))));
+    }
+}
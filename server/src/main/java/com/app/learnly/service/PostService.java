@@ -1,18 +1,42 @@
 package com.app.learnly.service;
 
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.Post;
+import com.app.learnly.model.PostBatch;
+import com.app.learnly.model.PostView;
 import com.app.learnly.model.User;
+import com.app.learnly.model.ViewerState;
 import com.app.learnly.repository.PostRepository;
 import com.app.learnly.repository.UserRepository;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PostService {
@@ -23,6 +47,55 @@ public class PostService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private TrendingTagService trendingTagService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private PostCleanupService postCleanupService;
+
+    @Autowired
+    private MediaDerivativeService mediaDerivativeService;
+
+    @Autowired
+    private DocumentPatcher documentPatcher;
+
+    @Autowired
+    private LikeWriteBuffer likeWriteBuffer;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // JSON property -> document field, for the post fields an author may change
+    private static final Map<String, String> PATCHABLE_FIELDS = Map.of(
+            "title", "title",
+            "content", "content",
+            "mediaUrls", "mediaUrls",
+            "fileTypes", "fileTypes",
+            "tags", "tags");
+
+    // Upper bound on ids per multi-get
+    public static final int MAX_BATCH_IDS = 100;
+
+    static final String POSTS_COLLECTION = "posts";
+
+    // Documents fetched and hydrated per round trip while streaming; keeps per-request memory bounded
+    private static final int STREAM_BATCH_SIZE = 100;
+
     public Post createPost(Post post, OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
@@ -42,18 +115,199 @@ public class PostService {
 
         post.setUser(user);
         post.setCreatedAt(new Date());
-        return postRepository.save(post);
+        post.setMediaVariants(null);
+        post.setThumbnailUrls(null);
+        // Empty rather than absent, so the preview backfill does not pick up new posts
+        post.setRecentComments(new ArrayList<>());
+        post.setTags(TagIndexService.normalizeTags(post.getTags()));
+        Post savedPost = postRepository.save(post);
+        tagIndexService.onPostCreated(savedPost.getTags());
+        trendingTagService.recordPostCreated(savedPost.getTags());
+        postSearchService.index(savedPost);
+        timelineService.fanOutPost(savedPost);
+        mediaDerivativeService.generateVariants(savedPost);
+        return savedPost;
+    }
+
+    /**
+     * Streams every post, newest first, from a Mongo cursor into the given sink.
+     * Posts are hydrated in batches, so memory stays bounded by one batch and
+     * each batch costs one author lookup.
+     *
+     * @param sink Receives each post as it is read.
+     */
+    public void streamAllPosts(Consumer<PostView> sink) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        List<PostView> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try (Stream<PostView> posts = mongoTemplate.stream(query, PostView.class, POSTS_COLLECTION)) {
+            for (PostView post : (Iterable<PostView>) posts::iterator) {
+                batch.add(post);
+                if (batch.size() == STREAM_BATCH_SIZE) {
+                    hydrationService.hydratePosts(batch).forEach(sink);
+                    batch.clear();
+                }
+            }
+        }
+        hydrationService.hydratePosts(batch).forEach(sink);
+    }
+
+    /**
+     * Reads one keyset page of posts, newest first.
+     *
+     * @param after Cursor returned by the previous page, or null for the first page.
+     * @param limit Requested page size, clamped to {@link #MAX_PAGE_SIZE}.
+     * @return The hydrated page and the cursor for the next one.
+     */
+    public CursorPage<PostView> getPostsPage(PageCursor after, int limit) {
+        int pageSize = clampPageSize(limit);
+        Query query = new Query();
+        if (after != null) {
+            query.addCriteria(after.olderThan("createdAt"));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(pageSize);
+
+        List<PostView> posts = hydrationService.hydratePosts(mongoTemplate.find(query, PostView.class, POSTS_COLLECTION));
+        String nextCursor = null;
+        if (posts.size() == pageSize) {
+            PostView last = posts.get(posts.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(posts, nextCursor);
     }
 
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    public static int clampPageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
     public Optional<Post> getPostById(String id) {
         return postRepository.findById(id);
     }
 
-    public List<Post> getPostsByUserId(String userId, OAuth2User principal) {
+    /**
+     * Loads several posts by id with one {@code $in} query and one author lookup.
+     *
+     * @param ids The post IDs; duplicates are ignored.
+     * @return The found posts in request order and the ids that were not found.
+     * @throws IllegalArgumentException if no ids or more than {@link #MAX_BATCH_IDS} are given.
+     */
+    public PostBatch getPostsByIds(List<String> ids) {
+        Set<String> distinct = distinctPostIds(ids);
+        List<PostView> posts = hydrationService.loadPostsInOrder(new ArrayList<>(distinct));
+        Set<String> found = new HashSet<>();
+        posts.forEach(post -> found.add(post.getId()));
+        List<String> missing = new ArrayList<>();
+        for (String id : distinct) {
+            if (!found.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return new PostBatch(posts, missing);
+    }
+
+    /**
+     * Tells the caller, for each post of a page, whether they liked, saved
+     * or wrote it. Besides resolving the caller, which also reads their saved
+     * posts, this is one aggregation: the posts are matched by id and joined
+     * to the caller's likes on the (postId, userId) index.
+     *
+     * @param ids Post ids, at most {@link #MAX_BATCH_IDS}; duplicates are ignored.
+     * @return The state of each existing post, in request order.
+     * @throws IllegalArgumentException if no ids or too many ids are given.
+     */
+    public List<ViewerState> getViewerState(List<String> ids, OAuth2User principal) {
+        Set<String> distinct = distinctPostIds(ids);
+        String providerId = principal.getAttribute("sub") != null
+                ? principal.getAttribute("sub")
+                : principal.getAttribute("id");
+        if (providerId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated");
+        }
+        Query userQuery = Query.query(Criteria.where("providerId").is(providerId));
+        userQuery.fields().include("savedPosts");
+        User user = mongoTemplate.findOne(userQuery, User.class);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+
+        Object callerId = MongoIds.toObjectId(user.getId());
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").in(MongoIds.toObjectIds(distinct))),
+                // user.$id cannot be used as a field path, hence $getField
+                stage("$project", new Document("postId", new Document("$toString", "$_id"))
+                        .append("authored", new Document("$eq", List.of(
+                                new Document("$getField", new Document("field", new Document("$literal", "$id"))
+                                        .append("input", "$user")),
+                                callerId)))),
+                stage("$lookup", new Document("from", "likes")
+                        .append("localField", "postId")
+                        .append("foreignField", "postId")
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("userId", user.getId())),
+                                new Document("$project", new Document("_id", 1))))
+                        .append("as", "likes")),
+                stage("$project", new Document("postId", 1)
+                        .append("authored", 1)
+                        .append("liked", new Document("$gt", List.of(new Document("$size", "$likes"), 0)))));
+        Map<String, Document> rows = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, POSTS_COLLECTION, Document.class)
+                .forEach(row -> rows.put(row.getString("postId"), row));
+
+        Set<String> saved = user.getSavedPosts() != null ? new HashSet<>(user.getSavedPosts()) : Set.of();
+        List<ViewerState> states = new ArrayList<>(rows.size());
+        for (String id : distinct) {
+            Document row = rows.get(id);
+            if (row == null) {
+                continue;
+            }
+            boolean liked = Boolean.TRUE.equals(row.getBoolean("liked"));
+            if (likeWriteBuffer.isEnabled()) {
+                Boolean pending = likeWriteBuffer.pendingState(id, user.getId());
+                liked = pending != null ? pending : liked;
+            }
+            states.add(new ViewerState(id, liked, saved.contains(id), Boolean.TRUE.equals(row.getBoolean("authored"))));
+        }
+        return states;
+    }
+
+    private static AggregationOperation stage(String operator, Document body) {
+        return context -> new Document(operator, body);
+    }
+
+    private static Set<String> distinctPostIds(List<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            for (String id : ids) {
+                if (id != null && !id.isBlank()) {
+                    distinct.add(id);
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one post id is required");
+        }
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Too many post ids");
+        }
+        return distinct;
+    }
+
+    /**
+     * Reads only the version stamp of a post, for conditional GETs.
+     *
+     * @return The stamp, or null if the post does not exist.
+     */
+    // Covers the author too: the post body embeds the resolved user, which changes without a post write
+    public VersionStamps.Stamp getVersionStamp(String id) {
+        return VersionStamps.findWithAuthor(mongoTemplate, Criteria.where("_id").is(MongoIds.toObjectId(id)),
+                POSTS_COLLECTION, "user");
+    }
+
+    public List<PostView> getPostsByUserId(String userId, OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
                 : principal.getAttribute("id");
@@ -72,19 +326,52 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Unauthorized to access this user's posts");
         }
 
-        return postRepository.findByUser(user.get());
+        Query query = new Query(Criteria.where("user.$id").is(MongoIds.toObjectId(userId)))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        return hydrationService.hydratePosts(mongoTemplate.find(query, PostView.class, POSTS_COLLECTION));
     }
 
-    public List<Post> getPostsByTag(String tag) {
-        return postRepository.findByTagsContaining(tag);
+    /**
+     * Pages through the posts with one tag, newest first. The tag is
+     * normalized the way tags are stored; a single-tag form of
+     * {@link TagIndexService#findPosts}.
+     *
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size, clamped to {@link #MAX_PAGE_SIZE}.
+     * @throws IllegalArgumentException if the tag is blank.
+     */
+    public CursorPage<PostView> getPostsByTag(String tag, PageCursor after, int limit) {
+        return tagIndexService.findPosts(List.of(tag), null, null, after, limit);
     }
 
+    /**
+     * Replaces the editable fields of a post (title, content, media, tags)
+     * with one targeted update.
+     */
     public Post updatePost(String id, Post updatedPost, OAuth2User principal) {
-        Optional<Post> existingPost = postRepository.findById(id);
-        if (!existingPost.isPresent()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
-        }
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", updatedPost.getTitle());
+        changes.put("content", updatedPost.getContent());
+        changes.put("mediaUrls", updatedPost.getMediaUrls());
+        changes.put("fileTypes", updatedPost.getFileTypes());
+        changes.put("tags", updatedPost.getTags());
+        return patchPost(id, changes, null, principal);
+    }
 
+    /**
+     * Changes only the given fields of a post, as one atomic update that
+     * also checks ownership and, if given, the version the client last saw.
+     *
+     * @param id The post ID.
+     * @param changes JSON property to new value; null removes the field.
+     * @param expectedVersion Version from the client's If-Match, or null.
+     * @param principal The authenticated author.
+     * @return The updated post.
+     * @throws IllegalArgumentException if a field cannot be changed or has the wrong type.
+     * @throws ResponseStatusException 401, 403, 404 or 412.
+     */
+    @SuppressWarnings("unchecked")
+    public Post patchPost(String id, Map<String, Object> changes, Long expectedVersion, OAuth2User principal) {
         String providerId = principal.getAttribute("sub") != null
                 ? principal.getAttribute("sub")
                 : principal.getAttribute("id");
@@ -93,17 +380,34 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated");
         }
 
-        Post post = existingPost.get();
-        if (!post.getUser().getId().equals(userOptional.get().getId())) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Unauthorized to update this post");
+        if (changes.get("tags") instanceof List<?> tags && tags.stream().allMatch(tag -> tag == null || tag instanceof String)) {
+            // Stored as counted, so tag queries and tag_stats agree
+            changes = new HashMap<>(changes);
+            changes.put("tags", TagIndexService.normalizeTags((List<String>) tags));
         }
 
-        post.setTitle(updatedPost.getTitle());
-        post.setContent(updatedPost.getContent());
-        post.setMediaUrls(updatedPost.getMediaUrls());
-        post.setFileTypes(updatedPost.getFileTypes());
-        post.setTags(updatedPost.getTags());
-        return postRepository.save(post);
+        Criteria ownedByUser = Criteria.where("user.$id").is(MongoIds.toObjectId(userOptional.get().getId()));
+        DocumentPatcher.Result<Post> result = documentPatcher.patch(Post.class, id, ownedByUser, changes,
+                PATCHABLE_FIELDS, Map.of(), expectedVersion);
+        Post post = result.document();
+        Map<String, Object> previous = result.previousValues();
+
+        if (previous.containsKey("tags")) {
+            tagIndexService.onPostUpdated((List<String>) previous.get("tags"), post.getTags());
+        }
+        if (previous.containsKey("title") || previous.containsKey("content") || previous.containsKey("tags")) {
+            postSearchService.index(post);
+        }
+        if (previous.containsKey("mediaUrls") && !Objects.equals(previous.get("mediaUrls"), post.getMediaUrls())) {
+            // Variants of the old media are dropped, unless the media changed again meanwhile
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id).and("mediaUrls").is(post.getMediaUrls())),
+                    VersionStamps.touch(new Update().unset("mediaVariants").unset("thumbnailUrls")), Post.class);
+            post.setMediaVariants(null);
+            post.setThumbnailUrls(null);
+            mediaDerivativeService.generateVariants(post);
+        }
+        return post;
     }
 
     public void deletePost(String id, OAuth2User principal) {
@@ -125,5 +429,9 @@ public class PostService {
         }
 
         postRepository.deleteById(id);
+        tagIndexService.onPostDeleted(post.get().getTags());
+        postSearchService.remove(id);
+        // Likes, comments, saved references and timeline entries go in the background
+        postCleanupService.enqueue(id, userOptional.get().getId());
     }
 }
\ No newline at end of file
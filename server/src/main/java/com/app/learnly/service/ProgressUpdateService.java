@@ -4,9 +4,12 @@ package com.app.learnly.service;
 import com.app.learnly.model.ProgressUpdate;
 import com.app.learnly.repository.ProgressUpdateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -15,6 +18,17 @@ public class ProgressUpdateService {
     @Autowired
     private ProgressUpdateRepository progressUpdateRepository;
 
+    @Autowired
+    private DocumentPatcher documentPatcher;
+
+    // JSON property -> document field, for the fields the owner may change
+    private static final Map<String, String> PATCHABLE_FIELDS = Map.of(
+            "learningPlanId", "learningPlanId",
+            "title", "title",
+            "content", "content",
+            "mediaUrls", "mediaUrls",
+            "template", "template");
+
     public ProgressUpdate createProgressUpdate(ProgressUpdate progressUpdate) {
         progressUpdate.setCreatedAt(new Date());
         progressUpdate.setUpdatedAt(new Date());
@@ -33,21 +47,35 @@ public class ProgressUpdateService {
         return progressUpdateRepository.findById(id);
     }
 
-    public ProgressUpdate updateProgressUpdate(String id, ProgressUpdate updatedUpdate) {
-        Optional<ProgressUpdate> existingUpdate = progressUpdateRepository.findById(id);
-
-        if (existingUpdate.isPresent()) {
-            ProgressUpdate update = existingUpdate.get();
-
-            // Update fields but keep original ID and creation date
-            updatedUpdate.setId(id);
-            updatedUpdate.setCreatedAt(update.getCreatedAt());
-            updatedUpdate.setUpdatedAt(new Date());
-
-            return progressUpdateRepository.save(updatedUpdate);
-        }
+    /**
+     * Replaces the editable fields of a progress update with one targeted
+     * update; the owner and creation date are kept.
+     *
+     * @param ownerId ID of the user making the change; only the owner may.
+     */
+    public ProgressUpdate updateProgressUpdate(String id, String ownerId, ProgressUpdate updatedUpdate) {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("learningPlanId", updatedUpdate.getLearningPlanId());
+        changes.put("title", updatedUpdate.getTitle());
+        changes.put("content", updatedUpdate.getContent());
+        changes.put("mediaUrls", updatedUpdate.getMediaUrls());
+        changes.put("template", updatedUpdate.getTemplate());
+        return patchProgressUpdate(id, ownerId, changes, null);
+    }
 
-        return null;
+    /**
+     * Changes only the given fields of a progress update, as one atomic update
+     * that also checks ownership and, if given, the version the client last saw.
+     *
+     * @param changes JSON property to new value; null removes the field.
+     * @param expectedVersion Version from the client's If-Match, or null.
+     * @throws IllegalArgumentException if a field cannot be changed or has the wrong type.
+     * @throws org.springframework.web.server.ResponseStatusException 403, 404 or 412.
+     */
+    public ProgressUpdate patchProgressUpdate(String id, String ownerId, Map<String, Object> changes,
+                                              Long expectedVersion) {
+        return documentPatcher.patch(ProgressUpdate.class, id, Criteria.where("userId").is(ownerId), changes,
+                PATCHABLE_FIELDS, Map.of("updatedAt", new Date()), expectedVersion).document();
     }
 
     public boolean deleteProgressUpdate(String id) {
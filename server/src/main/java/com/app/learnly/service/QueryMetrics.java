@@ -0,0 +1,86 @@
+package com.app.learnly.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts Mongo commands issued per endpoint. The driver reports commands on
+ * the calling thread, so a thread-local counter attributes each command to
+ * the request being served on that thread.
+ */
+@Component
+public class QueryMetrics {
+
+    private final ThreadLocal<int[]> current = new ThreadLocal<>();
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+    // Called by the driver's command listener
+    public void onCommand() {
+        int[] counter = current.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+
+    public void begin() {
+        current.set(new int[1]);
+    }
+
+    public void end(String endpoint) {
+        int[] counter = current.get();
+        current.remove();
+        if (counter != null && endpoint != null) {
+            stats.computeIfAbsent(endpoint, key -> new Stat()).add(counter[0]);
+        }
+    }
+
+    // Drops the active counter without recording it
+    public void discard() {
+        current.remove();
+    }
+
+    /**
+     * Measures work that runs outside the request thread, e.g. a streamed response body.
+     */
+    public <T> T measure(String endpoint, Supplier<T> work) {
+        begin();
+        try {
+            return work.get();
+        } finally {
+            end(endpoint);
+        }
+    }
+
+    /**
+     * @return Per-endpoint request count, total and mean Mongo commands per request.
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stats.forEach((endpoint, stat) -> {
+            long requests = stat.requests.sum();
+            long queries = stat.queries.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("requests", requests);
+            values.put("queries", queries);
+            values.put("queriesPerRequest", requests == 0 ? 0.0 : (double) queries / requests);
+            result.put(endpoint, values);
+        });
+        return result;
+    }
+
+    private static final class Stat {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+
+        void add(int count) {
+            requests.increment();
+            queries.add(count);
+        }
+    }
+}
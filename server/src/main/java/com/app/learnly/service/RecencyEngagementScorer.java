@@ -0,0 +1,53 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default {@link FeedScorer}: exponential age decay times a damped
+ * like/comment velocity, boosted for authors the reader follows.
+ */
+@Component
+public class RecencyEngagementScorer implements FeedScorer {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    // A comment says more about a post than a like
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 2.0;
+
+    // Keeps brand new posts with one like from having an unbounded velocity
+    private static final double AGE_OFFSET_HOURS = 2.0;
+
+    private static final double FOLLOWED_AFFINITY = 1.5;
+    private static final double OWN_POST_AFFINITY = 1.2;
+    private static final double OTHER_AFFINITY = 1.0;
+
+    @Value("${feed.ranking.half-life-hours:24}")
+    private double halfLifeHours;
+
+    @Override
+    public double baseScore(PostView post, long nowMillis) {
+        if (post.getCreatedAt() == null) {
+            return 0;
+        }
+        double ageHours = Math.max(0, nowMillis - post.getCreatedAt().getTime()) / MILLIS_PER_HOUR;
+        double recency = Math.pow(0.5, ageHours / halfLifeHours);
+        double interactions = post.getLikeCount() * LIKE_WEIGHT + post.getCommentCount() * COMMENT_WEIGHT;
+        double velocity = interactions / (ageHours + AGE_OFFSET_HOURS);
+        return recency * (1 + Math.log1p(velocity));
+    }
+
+    @Override
+    public double affinity(PostView post, Context context) {
+        String authorId = post.getAuthorId();
+        if (authorId == null) {
+            return OTHER_AFFINITY;
+        }
+        if (authorId.equals(context.readerId())) {
+            return OWN_POST_AFFINITY;
+        }
+        return context.followedAuthorIds().contains(authorId) ? FOLLOWED_AFFINITY : OTHER_AFFINITY;
+    }
+}
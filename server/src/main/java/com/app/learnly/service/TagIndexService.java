@@ -0,0 +1,241 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.TagStat;
+import com.app.learnly.util.PageCursor;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tag queries over the multikey (tags, createdAt) index and incrementally
+ * maintained per-tag post counts. The counts are rebuilt from the posts
+ * after startup, which fills in the posts written before they were kept
+ * and corrects any drift.
+ */
+@Service
+public class TagIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagIndexService.class);
+
+    // Upper bound on tags per clause, so one request cannot build an unbounded query
+    public static final int MAX_TAGS_PER_CLAUSE = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    /**
+     * Finds posts matching a tag expression, newest first.
+     *
+     * @param all Tags that must all be present (AND).
+     * @param any Tags of which at least one must be present (OR).
+     * @param none Tags that must not be present (NOT).
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return The page of matching posts.
+     */
+    public CursorPage<PostView> findPosts(Collection<String> all, Collection<String> any, Collection<String> none,
+                                          PageCursor after, int limit) {
+        Set<String> allTags = normalize(all);
+        Set<String> anyTags = normalize(any);
+        Set<String> noneTags = normalize(none);
+        if (allTags.isEmpty() && anyTags.isEmpty()) {
+            throw new IllegalArgumentException("At least one tag to match is required");
+        }
+        if (allTags.size() > MAX_TAGS_PER_CLAUSE || anyTags.size() > MAX_TAGS_PER_CLAUSE
+                || noneTags.size() > MAX_TAGS_PER_CLAUSE) {
+            throw new IllegalArgumentException("Too many tags");
+        }
+
+        List<Criteria> clauses = new ArrayList<>();
+        if (!allTags.isEmpty()) {
+            clauses.add(Criteria.where("tags").all(allTags));
+        }
+        if (!anyTags.isEmpty()) {
+            clauses.add(Criteria.where("tags").in(anyTags));
+        }
+        if (!noneTags.isEmpty()) {
+            clauses.add(Criteria.where("tags").nin(noneTags));
+        }
+        if (after != null) {
+            clauses.add(after.olderThan("createdAt"));
+        }
+
+        int pageSize = PostService.clampPageSize(limit);
+        Query query = new Query(new Criteria().andOperator(clauses))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(pageSize);
+        List<PostView> posts = hydrationService.hydratePosts(
+                mongoTemplate.find(query, PostView.class, PostService.POSTS_COLLECTION));
+
+        String nextCursor = null;
+        if (posts.size() == pageSize) {
+            PostView last = posts.get(posts.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    /**
+     * Lists tags by descending post count, optionally filtered by prefix.
+     */
+    public List<TagStat> getTopTags(String prefix, int limit) {
+        Criteria criteria = Criteria.where("postCount").gt(0);
+        if (prefix != null && !prefix.isBlank()) {
+            criteria = criteria.and("_id").regex("^" + Pattern.quote(prefix.trim()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "postCount"))
+                .limit(PostService.clampPageSize(limit));
+        return mongoTemplate.find(query, TagStat.class);
+    }
+
+    /**
+     * Recomputes every tag's post count from the posts collection, in the
+     * background after startup. Each count is written only if it still
+     * holds the value read before the aggregation, so a post created or
+     * retagged meanwhile is never lost; such a tag is skipped and catches up
+     * on the next rebuild.
+     */
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildCounts() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Long> current = new HashMap<>();
+            mongoTemplate.findAll(TagStat.class).forEach(stat -> current.put(stat.getTag(), stat.getPostCount()));
+
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("tags.0").exists(true)),
+                    Aggregation.project("tags"),
+                    Aggregation.unwind("tags"),
+                    Aggregation.group("tags").count().as("postCount"));
+            Map<String, Long> counted = new HashMap<>();
+            for (Document group : mongoTemplate.aggregate(aggregation, PostService.POSTS_COLLECTION, Document.class)) {
+                // Posts written before tags were normalized on write may still hold untrimmed tags
+                Object tag = group.get("_id");
+                if (tag instanceof String value && !value.isBlank()) {
+                    counted.merge(value.trim(), group.get("postCount", Number.class).longValue(), Long::sum);
+                }
+            }
+
+            Set<String> tags = new HashSet<>(current.keySet());
+            tags.addAll(counted.keySet());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TagStat.class);
+            int writes = 0;
+            for (String tag : tags) {
+                long count = counted.getOrDefault(tag, 0L);
+                Long seen = current.get(tag);
+                if (seen == null) {
+                    bulk.upsert(Query.query(Criteria.where("_id").is(tag)), new Update().setOnInsert("postCount", count));
+                } else if (seen != count) {
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(tag).and("postCount").is(seen)),
+                            new Update().set("postCount", count));
+                } else {
+                    continue;
+                }
+                writes++;
+            }
+            int corrected = 0;
+            if (writes > 0) {
+                BulkWriteResult result = bulk.execute();
+                corrected = result.getModifiedCount() + result.getUpserts().size();
+            }
+            log.info("Tag counts rebuilt for {} tags, corrected {} in {} ms",
+                    counted.size(), corrected, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Tag count rebuild failed", e);
+        }
+    }
+
+    public long getTagCount(String tag) {
+        TagStat stat = mongoTemplate.findById(tag, TagStat.class);
+        return stat != null ? Math.max(stat.getPostCount(), 0) : 0;
+    }
+
+    public void onPostCreated(List<String> tags) {
+        applyDeltas(deltas(null, tags));
+    }
+
+    public void onPostUpdated(List<String> oldTags, List<String> newTags) {
+        applyDeltas(deltas(oldTags, newTags));
+    }
+
+    public void onPostDeleted(List<String> tags) {
+        applyDeltas(deltas(tags, null));
+    }
+
+    // Only tags that were added or removed change a count
+    static Map<String, Integer> deltas(List<String> oldTags, List<String> newTags) {
+        Set<String> before = normalize(oldTags);
+        Set<String> after = normalize(newTags);
+        Map<String, Integer> deltas = new HashMap<>();
+        for (String tag : after) {
+            if (!before.contains(tag)) {
+                deltas.put(tag, 1);
+            }
+        }
+        for (String tag : before) {
+            if (!after.contains(tag)) {
+                deltas.put(tag, -1);
+            }
+        }
+        return deltas;
+    }
+
+    private void applyDeltas(Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TagStat.class);
+        deltas.forEach((tag, delta) ->
+                bulk.upsert(Query.query(Criteria.where("_id").is(tag)), new Update().inc("postCount", delta)));
+        bulk.execute();
+    }
+
+    /**
+     * @return The tags as stored on a post: trimmed, without blanks or duplicates, in order; null for null.
+     */
+    public static List<String> normalizeTags(List<String> tags) {
+        return tags != null ? new ArrayList<>(normalize(tags)) : null;
+    }
+
+    private static Set<String> normalize(Collection<String> tags) {
+        Set<String> result = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isBlank()) {
+                    result.add(tag.trim());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,337 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.Post;
+import com.app.learnly.model.PostView;
+import com.app.learnly.model.Timeline;
+import com.app.learnly.model.User;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.PageCursor;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains per-user home timelines with a hybrid push/pull model.
+ * Posts by authors with at most {@code feed.pull-threshold} followers are
+ * fanned out on write; posts by larger authors are pulled and merged in at
+ * read time.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    // Upserts sent to Mongo per bulk write during fan-out
+    private static final int FANOUT_BATCH_SIZE = 1000;
+
+    // Undated entries sort last, as the oldest
+    static final Comparator<Timeline.Entry> NEWEST_FIRST = Comparator
+            .comparing(Timeline.Entry::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Timeline.Entry::getPostId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    @Autowired
+    private HydrationService hydrationService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FeedMetrics feedMetrics;
+
+    @Autowired
+    private FollowService followService;
+
+    @Value("${feed.timeline.max-size:800}")
+    private int maxTimelineSize;
+
+    @Value("${feed.pull-threshold:10000}")
+    private int pullThreshold;
+
+    /**
+     * Pushes a newly created post onto the timelines of the author and, unless
+     * the author is above the pull threshold, all of their followers. Runs on
+     * the feed executor, never on the request thread.
+     *
+     * @param post The saved post, with its author resolved.
+     */
+    @Async("feedExecutor")
+    public void fanOutPost(Post post) {
+        long start = System.nanoTime();
+        User author = post.getUser();
+        Timeline.Entry entry = new Timeline.Entry(post.getId(), author.getId(), post.getCreatedAt());
+
+        boolean pullMode = isPullModeAuthor(author);
+        try {
+            pushBatch(List.of(author.getId()), entry);
+            if (!pullMode) {
+                // Followers are read from the edge index a batch at a time, never all at once
+                List<Follow> edges = followService.getFollowerEdges(author.getId(), null, FANOUT_BATCH_SIZE);
+                while (!edges.isEmpty()) {
+                    pushBatch(edges.stream().map(Follow::getFollowerId).toList(), entry);
+                    edges = edges.size() < FANOUT_BATCH_SIZE ? List.of()
+                            : followService.getFollowerEdges(author.getId(), FollowService.after(edges), FANOUT_BATCH_SIZE);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Timeline fan-out failed for post {}", post.getId(), e);
+        }
+        feedMetrics.record(pullMode ? "fanout.skipped-pull" : "fanout.push", System.nanoTime() - start);
+    }
+
+    boolean isPullModeAuthor(User author) {
+        return author.getFollowerCount() > pullThreshold;
+    }
+
+    private void pushBatch(List<String> ownerIds, Timeline.Entry entry) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Timeline.class);
+        for (String ownerId : ownerIds) {
+            Update update = new Update();
+            update.push("entries").atPosition(0).slice(maxTimelineSize).each(entry);
+            bulk.upsert(Query.query(Criteria.where("_id").is(ownerId)), update);
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Reads one page of the reader's home timeline: the pushed timeline
+     * k-way merged with the recent posts of followed pull-mode authors.
+     * Pushed entries from authors the reader no longer follows are skipped
+     * and trimmed from the stored timeline.
+     *
+     * @param reader The user whose timeline is read.
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return The page of posts, newest first.
+     */
+    public CursorPage<PostView> getHomeTimeline(User reader, PageCursor after, int limit) {
+        long start = System.nanoTime();
+        int pageSize = PostService.clampPageSize(limit);
+        List<Timeline.Entry> page = readEntries(reader, after, pageSize + 1);
+        long mergedAt = System.nanoTime();
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+
+        List<PostView> posts = loadInOrder(page);
+        String nextCursor = null;
+        if (hasMore) {
+            Timeline.Entry last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getPostId()).encode();
+        }
+        feedMetrics.record("read.hydrate", System.nanoTime() - mergedAt);
+        feedMetrics.record("read.total", System.nanoTime() - start);
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    /**
+     * Returns the ids of the newest posts visible on the reader's home
+     * timeline, without loading the posts. Used as the candidate set for
+     * ranking.
+     *
+     * @param reader The user whose timeline is read.
+     * @param max Maximum number of ids to return.
+     * @return Post ids, newest first.
+     */
+    public List<String> getRecentPostIds(User reader, int max) {
+        return readEntries(reader, null, max).stream()
+                .map(Timeline.Entry::getPostId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Timeline.Entry> readEntries(User reader, PageCursor after, int max) {
+        long start = System.nanoTime();
+        List<Timeline.Entry> pushed = readPushed(reader.getId(), after, max);
+        long pushedAt = System.nanoTime();
+        feedMetrics.record("read.push", pushedAt - start);
+
+        Set<String> pullAuthors = findFollowedPullModeAuthors(reader.getId());
+        List<Timeline.Entry> pulled = readPulled(pullAuthors, after, max);
+        long pulledAt = System.nanoTime();
+        if (!pullAuthors.isEmpty()) {
+            feedMetrics.record("read.pull", pulledAt - pushedAt);
+        }
+
+        List<Timeline.Entry> merged = mergeNewestFirst(List.of(pushed, pulled), max);
+        feedMetrics.record("read.merge", System.nanoTime() - pulledAt);
+        return merged;
+    }
+
+    /**
+     * Reads up to {@code max} pushed entries older than the cursor. Entries
+     * are kept newest first by the fan-out's {@code $push} at position 0, so
+     * each read returns only a window of the stored array, cut server-side.
+     * The authors in the window are checked against the reader's follow
+     * edges with one query; entries of unfollowed authors are skipped and
+     * trimmed, and the next window is read if that left the page short.
+     */
+    private List<Timeline.Entry> readPushed(String ownerId, PageCursor after, int max) {
+        List<Timeline.Entry> result = new ArrayList<>(max);
+        PageCursor from = after;
+        while (result.size() < max) {
+            List<Timeline.Entry> window = readWindow(ownerId, from, max);
+            if (window.isEmpty()) {
+                break;
+            }
+
+            Set<String> authors = new HashSet<>();
+            for (Timeline.Entry entry : window) {
+                if (!ownerId.equals(entry.getAuthorId())) {
+                    authors.add(entry.getAuthorId());
+                }
+            }
+            Set<String> followed = followService.filterFollowed(ownerId, authors);
+            Set<String> unfollowed = new HashSet<>(authors);
+            unfollowed.removeAll(followed);
+            for (Timeline.Entry entry : window) {
+                if (!unfollowed.contains(entry.getAuthorId()) && result.size() < max) {
+                    result.add(entry);
+                }
+            }
+            if (!unfollowed.isEmpty()) {
+                trimUnfollowed(ownerId, unfollowed);
+            }
+
+            if (window.size() < max) {
+                break;
+            }
+            Timeline.Entry last = window.get(window.size() - 1);
+            from = new PageCursor(last.getCreatedAt(), last.getPostId());
+        }
+        return result;
+    }
+
+    // One document read by _id; $filter applies the cursor and $slice cuts the window before anything is sent
+    private List<Timeline.Entry> readWindow(String ownerId, PageCursor after, int size) {
+        Document entryCreatedAt = new Document("$type", "$$entry.createdAt");
+        Document cond = new Document("$eq", List.of(entryCreatedAt, "date"));
+        if (after != null) {
+            cond = new Document("$and", List.of(cond, new Document("$or", List.of(
+                    new Document("$lt", List.of("$$entry.createdAt", after.getCreatedAt())),
+                    new Document("$and", List.of(
+                            new Document("$eq", List.of("$$entry.createdAt", after.getCreatedAt())),
+                            new Document("$lt", List.of("$$entry.postId", after.getId()))))))));
+        }
+        Document window = new Document("$slice", List.of(new Document("$filter", new Document("input", "$entries")
+                .append("as", "entry").append("cond", cond)), size));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(ownerId)),
+                context -> new Document("$project", new Document("entries", window)));
+
+        Document timeline = mongoTemplate.aggregate(aggregation, Timeline.class, Document.class).getUniqueMappedResult();
+        if (timeline == null) {
+            return List.of();
+        }
+        List<Timeline.Entry> entries = new ArrayList<>();
+        for (Document doc : timeline.getList("entries", Document.class)) {
+            entries.add(new Timeline.Entry(doc.getString("postId"), doc.getString("authorId"), doc.getDate("createdAt")));
+        }
+        // Concurrent fan-outs can land slightly out of order
+        entries.sort(NEWEST_FIRST);
+        return entries;
+    }
+
+    /**
+     * Reads the newest posts of all pull-mode authors with one query. The
+     * {@code $in} over the (user.$id, createdAt, _id) index is answered as a
+     * merge of per-author index ranges already in sort order, so at most
+     * {@code max} posts are read however many such authors are followed.
+     */
+    private List<Timeline.Entry> readPulled(Set<String> authorIds, PageCursor after, int max) {
+        if (authorIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where("user.$id").in(MongoIds.toObjectIds(authorIds)));
+        // Undated posts cannot be paged past, so they are left out like undated pushed entries
+        query.addCriteria(after != null ? after.olderThan("createdAt") : Criteria.where("createdAt").ne(null));
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(max);
+        query.fields().include("_id", "createdAt", "user");
+
+        return mongoTemplate.find(query, Document.class, "posts").stream()
+                .map(doc -> new Timeline.Entry(doc.get("_id").toString(),
+                        ((DBRef) doc.get("user")).getId().toString(), doc.getDate("createdAt")))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Followed authors whose follower count puts them in pull mode. There are
+     * few such authors, so they are read from the followerCount index and
+     * checked against the reader's edges, never listing everyone the reader
+     * follows.
+     */
+    private Set<String> findFollowedPullModeAuthors(String readerId) {
+        Query query = Query.query(Criteria.where("followerCount").gt(pullThreshold));
+        query.fields().include("_id");
+        List<String> pullModeAuthors = mongoTemplate.find(query, Document.class, "users").stream()
+                .map(doc -> doc.get("_id").toString())
+                .toList();
+        return followService.filterFollowed(readerId, pullModeAuthors);
+    }
+
+    /**
+     * K-way merges newest-first sources into one newest-first list, dropping
+     * duplicate posts (a post may be both pushed and pulled after an author
+     * crosses the threshold).
+     */
+    static List<Timeline.Entry> mergeNewestFirst(List<List<Timeline.Entry>> sources, int max) {
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.entry, b.entry));
+        for (List<Timeline.Entry> source : sources) {
+            Iterator<Timeline.Entry> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        List<Timeline.Entry> merged = new ArrayList<>(max);
+        Set<String> seen = new HashSet<>();
+        while (!heads.isEmpty() && merged.size() < max) {
+            Head head = heads.poll();
+            if (seen.add(head.entry.getPostId())) {
+                merged.add(head.entry);
+            }
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    private record Head(Timeline.Entry entry, Iterator<Timeline.Entry> rest) {
+    }
+
+    // Lazy unfollow handling: drop the entries of authors found to be no longer followed
+    private void trimUnfollowed(String ownerId, Set<String> unfollowedAuthors) {
+        Update update = new Update().pull("entries",
+                new Document("authorId", new Document("$in", new ArrayList<>(unfollowedAuthors))));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(ownerId)), update, Timeline.class);
+    }
+
+    // Deleted posts are skipped
+    private List<PostView> loadInOrder(List<Timeline.Entry> entries) {
+        List<String> ids = entries.stream().map(Timeline.Entry::getPostId).collect(Collectors.toList());
+        return hydrationService.loadPostsInOrder(ids);
+    }
+}
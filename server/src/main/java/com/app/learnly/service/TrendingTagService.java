@@ -0,0 +1,210 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.TrendingSnapshot;
+import com.app.learnly.model.TrendingTag;
+import com.app.learnly.util.CountMinSketch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming "trending topics" engine. Post creation and engagement events
+ * feed exponentially decayed tag scores for 1h, 24h and 7d windows. Each
+ * window keeps a fixed-size count-min sketch for all tags plus a bounded
+ * top-K map of the heaviest hitters, so memory does not grow with the number
+ * of distinct tags and reads only touch the top-K map.
+ */
+@Service
+public class TrendingTagService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingTagService.class);
+
+    public static final double POST_WEIGHT = 3.0;
+    public static final double COMMENT_WEIGHT = 2.0;
+    public static final double LIKE_WEIGHT = 1.0;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int TOP_K_CAPACITY = 200;
+
+    // Rescale stored values once the landmark factor reaches e^20, well before doubles overflow
+    private static final double MAX_LANDMARK_EXPONENT = 20.0;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+
+    public TrendingTagService() {
+        windows.put("1h", new Window("1h", TimeUnit.HOURS.toMillis(1)));
+        windows.put("24h", new Window("24h", TimeUnit.HOURS.toMillis(24)));
+        windows.put("7d", new Window("7d", TimeUnit.DAYS.toMillis(7)));
+    }
+
+    public void recordPostCreated(List<String> tags) {
+        record(tags, POST_WEIGHT);
+    }
+
+    public void recordComment(List<String> tags) {
+        record(tags, COMMENT_WEIGHT);
+    }
+
+    public void recordLike(List<String> tags) {
+        record(tags, LIKE_WEIGHT);
+    }
+
+    private void record(List<String> tags, double weight) {
+        if (tags == null || tags.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String tag : tags) {
+            if (tag == null || tag.isBlank()) {
+                continue;
+            }
+            String key = tag.trim();
+            for (Window window : windows.values()) {
+                window.add(key, weight, now);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest scoring tags of a window.
+     *
+     * @param window One of "1h", "24h" or "7d".
+     * @param limit Maximum number of tags to return.
+     * @return Tags with their current decayed scores, highest first.
+     * @throws IllegalArgumentException if the window is unknown.
+     */
+    public List<TrendingTag> getTrendingTags(String window, int limit) {
+        Window selected = windows.get(window);
+        if (selected == null) {
+            throw new IllegalArgumentException("Unknown window: " + window);
+        }
+        return selected.top(Math.max(1, Math.min(limit, TOP_K_CAPACITY)), System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void restoreSnapshots() {
+        try {
+            for (Window window : windows.values()) {
+                TrendingSnapshot snapshot = mongoTemplate.findById(window.name, TrendingSnapshot.class);
+                if (snapshot != null) {
+                    window.restore(snapshot);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not restore trending tag snapshots, starting empty", e);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval-ms:60000}")
+    public void saveSnapshots() {
+        try {
+            for (Window window : windows.values()) {
+                mongoTemplate.save(window.snapshot());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not save trending tag snapshots", e);
+        }
+    }
+
+    private static final class Window {
+        private final String name;
+        private final double tauMillis;
+        private CountMinSketch sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        // Heavy hitters with their sketch estimates, scaled to the landmark
+        private final Map<String, Double> topK = new HashMap<>();
+        private long landmark = System.currentTimeMillis();
+
+        Window(String name, long tauMillis) {
+            this.name = name;
+            this.tauMillis = tauMillis;
+        }
+
+        synchronized void add(String tag, double weight, long now) {
+            double exponent = (now - landmark) / tauMillis;
+            if (exponent > MAX_LANDMARK_EXPONENT) {
+                rescale(now);
+                exponent = 0;
+            }
+            double estimate = sketch.add(tag, weight * Math.exp(exponent));
+
+            if (topK.containsKey(tag) || topK.size() < TOP_K_CAPACITY) {
+                topK.put(tag, estimate);
+                return;
+            }
+            Map.Entry<String, Double> min = null;
+            for (Map.Entry<String, Double> entry : topK.entrySet()) {
+                if (min == null || entry.getValue() < min.getValue()) {
+                    min = entry;
+                }
+            }
+            if (estimate > min.getValue()) {
+                topK.remove(min.getKey());
+                topK.put(tag, estimate);
+            }
+        }
+
+        synchronized List<TrendingTag> top(int limit, long now) {
+            double decay = Math.exp(-(now - landmark) / tauMillis);
+            List<Map.Entry<String, Double>> entries = new ArrayList<>(topK.entrySet());
+            entries.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+            List<TrendingTag> result = new ArrayList<>(Math.min(limit, entries.size()));
+            for (int i = 0; i < entries.size() && i < limit; i++) {
+                Map.Entry<String, Double> entry = entries.get(i);
+                result.add(new TrendingTag(entry.getKey(), entry.getValue() * decay));
+            }
+            return result;
+        }
+
+        private void rescale(long now) {
+            double factor = Math.exp(-(now - landmark) / tauMillis);
+            sketch.scale(factor);
+            topK.replaceAll((tag, value) -> value * factor);
+            landmark = now;
+        }
+
+        synchronized TrendingSnapshot snapshot() {
+            TrendingSnapshot snapshot = new TrendingSnapshot();
+            snapshot.setWindow(name);
+            snapshot.setLandmark(landmark);
+            snapshot.setDepth(sketch.getDepth());
+            snapshot.setWidth(sketch.getWidth());
+            snapshot.setCells(sketch.copyCells());
+            List<TrendingTag> heavyHitters = new ArrayList<>(topK.size());
+            topK.forEach((tag, value) -> heavyHitters.add(new TrendingTag(tag, value)));
+            snapshot.setTopK(heavyHitters);
+            snapshot.setSavedAt(new Date());
+            return snapshot;
+        }
+
+        synchronized void restore(TrendingSnapshot snapshot) {
+            if (snapshot.getDepth() != SKETCH_DEPTH || snapshot.getWidth() != SKETCH_WIDTH
+                    || snapshot.getCells() == null) {
+                return;
+            }
+            sketch = new CountMinSketch(snapshot.getDepth(), snapshot.getWidth(), snapshot.getCells());
+            landmark = snapshot.getLandmark();
+            topK.clear();
+            if (snapshot.getTopK() != null) {
+                snapshot.getTopK().forEach(entry -> topK.put(entry.getTag(), entry.getScore()));
+            }
+        }
+    }
+}
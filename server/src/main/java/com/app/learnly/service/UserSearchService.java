@@ -0,0 +1,184 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.User;
+import com.app.learnly.model.UserView;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.SearchKeys;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * User search over the normalized name tokens and email kept on each user
+ * (see {@link SearchKeys}). Every query term must be the prefix of a name
+ * token or of the email; the lookups use the nameTokens and emailLower
+ * indexes, pages are read with a (nameLower, _id) keyset, and only the
+ * fields of {@link UserView} are loaded. Cost follows the matches and the
+ * page size, not the number of users.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+
+    private static final int MAX_QUERY_TERMS = 5;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    // Sorts after every character a key can contain, so [p, p + MAX_CHAR) is "starts with p"
+    private static final String MAX_CHAR = "\uffff";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Sets the search keys for a name on a targeted update.
+     */
+    public static Update setNameKeys(Update update, String name) {
+        return update.set("nameLower", SearchKeys.normalizeName(name)).set("nameTokens", SearchKeys.tokens(name));
+    }
+
+    /**
+     * Sets the search keys on a user about to be inserted.
+     */
+    public static void applyKeys(User user) {
+        user.setNameLower(SearchKeys.normalizeName(user.getName()));
+        user.setNameTokens(SearchKeys.tokens(user.getName()));
+        user.setEmailLower(SearchKeys.normalizeEmail(user.getEmail()));
+    }
+
+    /**
+     * Searches users, excluding the caller.
+     *
+     * @param excludeProviderId Provider ID of the caller, left out of the results.
+     * @param queryText Free text; each word must prefix a name token or the email. May be null.
+     * @param name Words that must each prefix a name token. May be null.
+     * @param email Prefix of the email. May be null.
+     * @param cursor Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return Matching users ordered by name. With no terms at all, every user is listed.
+     * @throws IllegalArgumentException if there are too many terms or the cursor is malformed.
+     */
+    public CursorPage<UserView> search(String excludeProviderId, String queryText, String name, String email,
+                                       String cursor, int limit) {
+        int pageSize = PostService.clampPageSize(limit);
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(Criteria.where("providerId").ne(excludeProviderId));
+
+        List<String> queryTerms = SearchKeys.tokens(queryText);
+        List<String> nameTerms = SearchKeys.tokens(name);
+        if (queryTerms.size() + nameTerms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Too many search terms");
+        }
+        for (String term : queryTerms) {
+            clauses.add(new Criteria().orOperator(nameTokenPrefix(term), emailPrefix(term)));
+        }
+        for (String term : nameTerms) {
+            clauses.add(nameTokenPrefix(term));
+        }
+        String emailKey = SearchKeys.normalizeEmail(email);
+        if (emailKey != null && !emailKey.isEmpty()) {
+            clauses.add(emailPrefix(emailKey));
+        }
+        Key after = decodeCursor(cursor);
+        if (after != null) {
+            clauses.add(new Criteria().orOperator(
+                    Criteria.where("nameLower").gt(after.nameLower()),
+                    new Criteria().andOperator(
+                            Criteria.where("nameLower").is(after.nameLower()),
+                            Criteria.where("_id").gt(MongoIds.toObjectId(after.id())))));
+        }
+
+        Query query = Query.query(new Criteria().andOperator(clauses))
+                .with(Sort.by(Sort.Direction.ASC, "nameLower", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include("name", "email", "picture", "bio", "followerCount", "followingCount", "nameLower");
+        List<UserView> users = mongoTemplate.find(query, UserView.class, "users");
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserView last = users.get(users.size() - 1);
+            nextCursor = encodeCursor(new Key(last.getNameLower() != null ? last.getNameLower() : "", last.getId()));
+        }
+        return new CursorPage<>(users, nextCursor);
+    }
+
+    // Terms are letters and digits only, so the anchored regex needs no escaping and uses tight index bounds
+    private static Criteria nameTokenPrefix(String term) {
+        return Criteria.where("nameTokens").regex("^" + term);
+    }
+
+    private static Criteria emailPrefix(String prefix) {
+        return Criteria.where("emailLower").gte(prefix).lt(prefix + MAX_CHAR);
+    }
+
+    /**
+     * Fills in the search keys of users written before they existed, in the
+     * background after startup. The keys are never served, so the version
+     * stamp is left alone.
+     */
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("nameLower").exists(false)).limit(BACKFILL_BATCH_SIZE);
+        query.fields().include("name", "email");
+        int count = 0;
+        try {
+            List<Document> batch;
+            while (!(batch = mongoTemplate.find(query, Document.class, "users")).isEmpty()) {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users");
+                for (Document user : batch) {
+                    // Guarded by the name read, so a concurrent profile update is never overwritten with stale keys
+                    Query one = Query.query(Criteria.where("_id").is(user.get("_id")).and("name").is(user.getString("name")));
+                    bulk.updateOne(one, setNameKeys(new Update(), user.getString("name"))
+                                    .set("emailLower", SearchKeys.normalizeEmail(user.getString("email"))));
+                }
+                bulk.execute();
+                count += batch.size();
+            }
+            if (count > 0) {
+                log.info("Added search keys to {} users in {} ms", count, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            log.error("User search key backfill failed after {} users; it resumes on the next start", count, e);
+        }
+    }
+
+    private record Key(String nameLower, String id) {
+    }
+
+    private static String encodeCursor(Key key) {
+        String raw = key.id() + ":" + key.nameLower();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new Key(raw.substring(separator + 1), raw.substring(0, separator));
+    }
+}
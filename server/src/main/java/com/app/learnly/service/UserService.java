@@ -1,15 +1,27 @@
 package com.app.learnly.service;
 
+import com.app.learnly.model.AuthorSummary;
+import com.app.learnly.model.CursorPage;
 import com.app.learnly.model.User;
+import com.app.learnly.model.UserSuggestion;
+import com.app.learnly.model.UserView;
 import com.app.learnly.repository.PostRepository;
 import com.app.learnly.repository.UserRepository;
+import com.app.learnly.util.MongoIds;
+import com.app.learnly.util.PageCursor;
+import com.app.learnly.util.VersionStamps;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -20,6 +32,18 @@ public class UserService {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
     /**
      * Retrieves the current user based on their provider ID.
      *
@@ -33,6 +57,17 @@ public class UserService {
         return userRepository.findByProviderId(providerId).orElse(null);
     }
 
+    /**
+     * Reads only the version stamp of the user with the given provider ID,
+     * using the providerId index.
+     *
+     * @param providerId The unique ID from the OAuth2 provider.
+     * @return The stamp, or null if there is no such user.
+     */
+    public VersionStamps.Stamp getVersionStamp(String providerId) {
+        return VersionStamps.find(mongoTemplate, Criteria.where("providerId").is(providerId), "users");
+    }
+
     /**
      * Retrieves a user by their ID.
      *
@@ -44,33 +79,22 @@ public class UserService {
 //    }
 
     /**
-     * Searches for users excluding the current user, with optional filtering by name and email.
+     * Searches for users excluding the current user, by name and email prefixes.
      *
      * @param currentUserProviderId The provider ID of the current user.
+     * @param query Optional free text matched against names and emails.
      * @param name Optional name filter.
      * @param email Optional email filter.
-     * @return A list of matching users.
+     * @param cursor Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return One page of matching users, ordered by name.
      */
-    public List<User> searchUsers(String currentUserProviderId, String name, String email) {
+    public CursorPage<UserView> searchUsers(String currentUserProviderId, String query, String name, String email,
+                                            String cursor, int limit) {
         if (currentUserProviderId == null) {
-            return List.of();
-        }
-
-        List<User> users = userRepository.findByProviderIdNot(currentUserProviderId);
-
-        if (name != null) {
-            users = users.stream()
-                    .filter(user -> user.getName().toLowerCase().contains(name.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        if (email != null) {
-            users = users.stream()
-                    .filter(user -> user.getEmail().toLowerCase().contains(email.toLowerCase()))
-                    .collect(Collectors.toList());
+            return new CursorPage<>(List.of(), null);
         }
-
-        return users;
+        return userSearchService.search(currentUserProviderId, query, name, email, cursor, limit);
     }
 
     /**
@@ -85,28 +109,26 @@ public class UserService {
             return null;
         }
 
-        Optional<User> optionalUser = userRepository.findByProviderId(providerId);
-        if (optionalUser.isEmpty()) {
-            return null;
-        }
-
-        User user = optionalUser.get();
-
+        // Only the given fields are written, so the counts and saved posts maintained elsewhere are never overwritten
+        Update update = new Update();
         if (updates.containsKey("name") && updates.get("name") != null && !updates.get("name").trim().isEmpty()) {
-            user.setName(updates.get("name").trim());
+            update.set("name", updates.get("name").trim());
+            UserSearchService.setNameKeys(update, updates.get("name").trim());
         }
         if (updates.containsKey("bio")) {
-            user.setBio(updates.get("bio"));
+            update.set("bio", updates.get("bio"));
         }
         if (updates.containsKey("picture")) {
-            user.setPicture(updates.get("picture"));
+            update.set("picture", updates.get("picture"));
         }
 
-        return userRepository.save(user);
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("providerId").is(providerId)),
+                VersionStamps.touch(update), FindAndModifyOptions.options().returnNew(true), User.class);
     }
 
     /**
-     * Deletes a user account.
+     * Deletes a user account together with its follow edges, taking them off
+     * the other users' follower and following counts.
      *
      * @param providerId The provider ID of the user.
      * @return True if the account was deleted, false if the user was not found.
@@ -122,15 +144,16 @@ public class UserService {
         }
 
         userRepository.delete(optionalUser.get());
+        followService.removeAllEdges(optionalUser.get().getId());
         return true;
     }
 
     /**
-     * Follows a target user.
+     * Follows a target user. Following a user already followed changes nothing.
      *
      * @param currentUserProviderId The provider ID of the current user.
      * @param targetUserId The ID of the user to follow.
-     * @return The updated current User object, or null if the operation fails.
+     * @return The current User object with updated counts, or null if the operation fails.
      */
     public User followUser(String currentUserProviderId, String targetUserId) {
         if (currentUserProviderId == null || targetUserId == null) {
@@ -138,31 +161,37 @@ public class UserService {
         }
 
         Optional<User> currentUserOpt = userRepository.findByProviderId(currentUserProviderId);
-        Optional<User> targetUserOpt = userRepository.findById(targetUserId);
-
-        if (currentUserOpt.isEmpty() || targetUserOpt.isEmpty() || currentUserOpt.get().getId().equals(targetUserId)) {
+        if (currentUserOpt.isEmpty()) {
             return null;
         }
+        return followService.follow(currentUserOpt.get(), targetUserId);
+    }
 
-        User currentUser = currentUserOpt.get();
-        User targetUser = targetUserOpt.get();
-
-        if (!currentUser.getFollowing().contains(targetUserId)) {
-            currentUser.getFollowing().add(targetUserId);
-            targetUser.getFollowers().add(currentUser.getId());
-            userRepository.save(currentUser);
-            userRepository.save(targetUser);
+    /**
+     * Follows several users in one bulk write, skipping users already followed.
+     *
+     * @param currentUserProviderId The provider ID of the current user.
+     * @param targetUserIds The IDs of the users to follow.
+     * @return The current User object with updated counts, or null if the current user is not found.
+     */
+    public User followUsers(String currentUserProviderId, List<String> targetUserIds) {
+        if (currentUserProviderId == null) {
+            return null;
         }
 
-        return currentUser;
+        Optional<User> currentUserOpt = userRepository.findByProviderId(currentUserProviderId);
+        if (currentUserOpt.isEmpty()) {
+            return null;
+        }
+        return followService.followAll(currentUserOpt.get(), targetUserIds);
     }
 
     /**
-     * Unfollows a target user.
+     * Unfollows a target user. Unfollowing a user not followed changes nothing.
      *
      * @param currentUserProviderId The provider ID of the current user.
      * @param targetUserId The ID of the user to unfollow.
-     * @return The updated current User object, or null if the operation fails.
+     * @return The current User object with updated counts, or null if the current user is not found.
      */
     public User unfollowUser(String currentUserProviderId, String targetUserId) {
         if (currentUserProviderId == null || targetUserId == null) {
@@ -170,53 +199,111 @@ public class UserService {
         }
 
         Optional<User> currentUserOpt = userRepository.findByProviderId(currentUserProviderId);
-        Optional<User> targetUserOpt = userRepository.findById(targetUserId);
-
-        if (currentUserOpt.isEmpty() || targetUserOpt.isEmpty()) {
+        if (currentUserOpt.isEmpty()) {
             return null;
         }
+        return followService.unfollow(currentUserOpt.get(), targetUserId);
+    }
 
-        User currentUser = currentUserOpt.get();
-        User targetUser = targetUserOpt.get();
+    /**
+     * Retrieves the newest followers of a user, for clients that do not page.
+     *
+     * @param userId The ID of the user.
+     * @return At most {@link PostService#MAX_PAGE_SIZE} followers, newest follow first.
+     */
+    public List<AuthorSummary> getUserFollowers(String userId) {
+        return followService.getFollowersPage(userId, null, PostService.MAX_PAGE_SIZE).getItems();
+    }
 
-        currentUser.getFollowing().remove(targetUserId);
-        targetUser.getFollowers().remove(currentUser.getId());
-        userRepository.save(currentUser);
-        userRepository.save(targetUser);
+    /**
+     * Retrieves the users a specified user followed most recently, for clients that do not page.
+     *
+     * @param userId The ID of the user.
+     * @return At most {@link PostService#MAX_PAGE_SIZE} followed users, newest follow first.
+     */
+    public List<AuthorSummary> getUserFollowing(String userId) {
+        return followService.getFollowingPage(userId, null, PostService.MAX_PAGE_SIZE).getItems();
+    }
 
-        return currentUser;
+    /**
+     * Checks whether the current user follows a target user, reading the one
+     * edge only.
+     *
+     * @param currentUserProviderId The provider ID of the current user.
+     * @param targetUserId The ID of the user to check.
+     * @return True if the current user follows the target, false otherwise or if the current user is not found.
+     */
+    public boolean isFollowing(String currentUserProviderId, String targetUserId) {
+        if (currentUserProviderId == null || targetUserId == null) {
+            return false;
+        }
+        Query query = Query.query(Criteria.where("providerId").is(currentUserProviderId));
+        query.fields().include("_id");
+        User user = mongoTemplate.findOne(query, User.class);
+        return user != null && followService.isFollowing(user.getId(), targetUserId);
     }
 
     /**
-     * Retrieves the followers of a user.
+     * Finds which of the given users the current user follows, with one
+     * query on the follow edge index.
      *
-     * @param userId The ID of the user.
-     * @return A list of followers, or an empty list if the user is not found.
+     * @param currentUserProviderId The provider ID of the current user.
+     * @param targetUserIds The IDs of the users to check, at most {@link PostService#MAX_BATCH_IDS}.
+     * @return The checked users the current user follows, empty if the current user is not found.
+     * @throws IllegalArgumentException if too many ids are given.
      */
-    public List<User> getUserFollowers(String userId) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
-            return List.of();
+    public Set<String> getFollowedAmong(String currentUserProviderId, List<String> targetUserIds) {
+        if (targetUserIds.size() > PostService.MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Too many user ids");
         }
+        if (currentUserProviderId == null) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("providerId").is(currentUserProviderId));
+        query.fields().include("_id");
+        User user = mongoTemplate.findOne(query, User.class);
+        return user != null ? followService.filterFollowed(user.getId(), targetUserIds) : Set.of();
+    }
 
-        User user = optionalUser.get();
-        return userRepository.findAllById(user.getFollowers());
+    /**
+     * Retrieves the followers of a user, newest follow first.
+     *
+     * @param userId The ID of the user.
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return One page of followers.
+     */
+    public CursorPage<AuthorSummary> getFollowersPage(String userId, PageCursor after, int limit) {
+        return followService.getFollowersPage(userId, after, limit);
     }
 
     /**
-     * Retrieves the users a specified user is following.
+     * Retrieves the users a specified user is following, newest follow first.
      *
      * @param userId The ID of the user.
-     * @return A list of followed users, or an empty list if the user is not found.
+     * @param after Cursor from the previous page, or null for the first page.
+     * @param limit Requested page size.
+     * @return One page of followed users.
      */
-    public List<User> getUserFollowing(String userId) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+    public CursorPage<AuthorSummary> getFollowingPage(String userId, PageCursor after, int limit) {
+        return followService.getFollowingPage(userId, after, limit);
+    }
+
+    /**
+     * Suggests users for the current user to follow.
+     *
+     * @param providerId The provider ID of the current user.
+     * @param limit Requested number of suggestions.
+     * @return Suggestions, best first, or an empty list if the user is not found.
+     */
+    public List<UserSuggestion> getSuggestions(String providerId, int limit) {
+        if (providerId == null) {
             return List.of();
         }
-
-        User user = optionalUser.get();
-        return userRepository.findAllById(user.getFollowing());
+        Query query = Query.query(Criteria.where("providerId").is(providerId));
+        query.fields().include("_id");
+        User user = mongoTemplate.findOne(query, User.class);
+        return user != null ? followSuggestionService.suggest(user.getId(), limit) : List.of();
     }
 
     /**
@@ -285,23 +372,15 @@ public class UserService {
     }
 
     public void savePost(String userId, String postId) {
-        Optional<User> userOptional = userRepository.findById(userId);
-        if (userOptional.isPresent() && postRepository.existsById(postId)) {
-            User user = userOptional.get();
-            if (!user.getSavedPosts().contains(postId)) {
-                user.getSavedPosts().add(postId);
-                userRepository.save(user);
-            }
+        if (postRepository.existsById(postId)) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(userId))),
+                    VersionStamps.touch(new Update().addToSet("savedPosts", postId)), User.class);
         }
     }
 
     public void unsavePost(String userId, String postId) {
-        Optional<User> userOptional = userRepository.findById(userId);
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            user.getSavedPosts().remove(postId);
-            userRepository.save(user);
-        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(MongoIds.toObjectId(userId))),
+                VersionStamps.touch(new Update().pull("savedPosts", postId)), User.class);
     }
 
     public Optional<User> getUserById(String userId) {
@@ -0,0 +1,64 @@
+package com.app.learnly.util;
+
+/**
+ * A single HTTP byte range, inclusive on both ends as in {@code Content-Range}.
+ *
+ * @param start First byte served.
+ * @param end Last byte served.
+ */
+public record ByteRange(long start, long end) {
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Parses a {@code Range} header for a resource of the given length.
+     * Only single ranges are honoured; multi-range requests get the whole
+     * resource, which the spec allows.
+     *
+     * @param header The Range header, may be null.
+     * @param totalLength Length of the resource in bytes.
+     * @return The range, or null to serve the whole resource.
+     * @throws IllegalArgumentException if the range cannot be satisfied (416).
+     */
+    public static ByteRange parse(String header, long totalLength) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    throw new IllegalArgumentException("Unsatisfiable range");
+                }
+                start = Math.max(0, totalLength - suffix);
+                end = totalLength - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? totalLength - 1 : Math.min(Long.parseLong(last), totalLength - 1);
+            }
+            if (start < 0 || start >= totalLength || end < start) {
+                throw new IllegalArgumentException("Unsatisfiable range");
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            // A syntactically invalid Range header is ignored
+            return null;
+        }
+    }
+}
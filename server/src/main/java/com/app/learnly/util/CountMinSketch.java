@@ -0,0 +1,91 @@
+package com.app.learnly.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Count-min sketch over weighted string keys. Memory is fixed at
+ * depth x width doubles regardless of how many distinct keys are seen;
+ * estimates never undercount and overcount by at most e/width of the total
+ * weight with probability 1 - e^-depth.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final double[] cells;
+
+    public CountMinSketch(int depth, int width) {
+        this(depth, width, new double[depth * width]);
+    }
+
+    public CountMinSketch(int depth, int width, double[] cells) {
+        if (cells.length != depth * width) {
+            throw new IllegalArgumentException("Cell count does not match dimensions");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.cells = cells;
+    }
+
+    /**
+     * Adds weight to a key (conservative update) and returns its new estimate.
+     */
+    public double add(String key, double weight) {
+        int[] slots = slots(key);
+        double estimate = Double.MAX_VALUE;
+        for (int slot : slots) {
+            estimate = Math.min(estimate, cells[slot]);
+        }
+        double updated = estimate + weight;
+        for (int slot : slots) {
+            if (cells[slot] < updated) {
+                cells[slot] = updated;
+            }
+        }
+        return updated;
+    }
+
+    public double estimate(String key) {
+        double estimate = Double.MAX_VALUE;
+        for (int slot : slots(key)) {
+            estimate = Math.min(estimate, cells[slot]);
+        }
+        return estimate;
+    }
+
+    public void scale(double factor) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] *= factor;
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public double[] copyCells() {
+        return Arrays.copyOf(cells, cells.length);
+    }
+
+    // Double hashing over a 64-bit FNV-1a hash: h1 + i * h2 per row
+    private int[] slots(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int[] slots = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            int column = Math.floorMod(h1 + row * h2, width);
+            slots[row] = row * width + column;
+        }
+        return slots;
+    }
+}
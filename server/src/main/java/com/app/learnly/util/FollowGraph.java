@@ -0,0 +1,202 @@
+package com.app.learnly.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact directed follow graph. User ids are remapped to dense ints once;
+ * each node keeps its outgoing (following) and incoming (followers)
+ * neighbours in primitive int arrays, oldest edge first, so an edge costs
+ * 4 bytes per direction plus growth slack instead of two boxed strings.
+ * After a bulk load, {@link #trim()} shrinks every array to its degree,
+ * which makes the layout equivalent to CSR while still allowing single
+ * edge inserts and removals.
+ * <p>
+ * Not thread-safe; callers guard reads and writes.
+ */
+public final class FollowGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    // Assumed heap per node for the id string and its map entry, for the memory estimate
+    private static final int NODE_OVERHEAD_BYTES = 120;
+
+    private final Map<String, Integer> indexes;
+    private String[] ids;
+    private int[][] out;
+    private int[][] in;
+    private int[] outDegree;
+    private int[] inDegree;
+    private int nodeCount;
+    private long edgeCount;
+
+    public FollowGraph(int expectedNodes) {
+        int capacity = Math.max(16, expectedNodes);
+        indexes = new HashMap<>(capacity * 4 / 3 + 1);
+        ids = new String[capacity];
+        out = new int[capacity][];
+        in = new int[capacity][];
+        outDegree = new int[capacity];
+        inDegree = new int[capacity];
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return The dense index of a user, or -1 if the user has no edges.
+     */
+    public int indexOf(String id) {
+        Integer index = indexes.get(id);
+        return index != null ? index : -1;
+    }
+
+    public String idOf(int index) {
+        return ids[index];
+    }
+
+    public int outDegree(int index) {
+        return outDegree[index];
+    }
+
+    public int inDegree(int index) {
+        return inDegree[index];
+    }
+
+    /**
+     * The users a node follows. The array is the graph's own storage: only
+     * the first {@link #outDegree} entries are valid and it must not be changed.
+     */
+    public int[] following(int index) {
+        return out[index];
+    }
+
+    /**
+     * The followers of a node; same contract as {@link #following}.
+     */
+    public int[] followers(int index) {
+        return in[index];
+    }
+
+    /**
+     * Adds an edge unless it exists.
+     *
+     * @return Whether the edge was added.
+     */
+    public boolean addEdge(String followerId, String followeeId) {
+        int from = intern(followerId);
+        int to = intern(followeeId);
+        if (find(out[from], outDegree[from], to) >= 0) {
+            return false;
+        }
+        link(from, to);
+        return true;
+    }
+
+    /**
+     * Adds an edge known not to exist yet, e.g. while loading from the
+     * uniquely indexed edge collection, skipping the duplicate check.
+     */
+    public void addNewEdge(String followerId, String followeeId) {
+        link(intern(followerId), intern(followeeId));
+    }
+
+    /**
+     * @return Whether the edge existed.
+     */
+    public boolean removeEdge(String followerId, String followeeId) {
+        int from = indexOf(followerId);
+        int to = indexOf(followeeId);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        int outPosition = find(out[from], outDegree[from], to);
+        if (outPosition < 0) {
+            return false;
+        }
+        int inPosition = find(in[to], inDegree[to], from);
+        remove(out[from], outDegree[from], outPosition);
+        remove(in[to], inDegree[to], inPosition);
+        outDegree[from]--;
+        inDegree[to]--;
+        edgeCount--;
+        return true;
+    }
+
+    /**
+     * Shrinks every neighbour array to its degree.
+     */
+    public void trim() {
+        for (int i = 0; i < nodeCount; i++) {
+            out[i] = outDegree[i] == 0 ? EMPTY : Arrays.copyOf(out[i], outDegree[i]);
+            in[i] = inDegree[i] == 0 ? EMPTY : Arrays.copyOf(in[i], inDegree[i]);
+        }
+    }
+
+    /**
+     * Approximate heap used by the graph, counting allocated (not just used)
+     * neighbour slots and an assumed per-node cost for the id mapping.
+     */
+    public long estimatedBytes() {
+        long bytes = (long) ids.length * (8 + 8 + 8 + 4 + 4);
+        for (int i = 0; i < nodeCount; i++) {
+            bytes += 16L + 4L * out[i].length + 16L + 4L * in[i].length;
+        }
+        return bytes + (long) nodeCount * NODE_OVERHEAD_BYTES;
+    }
+
+    private void link(int from, int to) {
+        out[from] = append(out[from], outDegree[from]++, to);
+        in[to] = append(in[to], inDegree[to]++, from);
+        edgeCount++;
+    }
+
+    private int intern(String id) {
+        Integer existing = indexes.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        if (nodeCount == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            out = Arrays.copyOf(out, capacity);
+            in = Arrays.copyOf(in, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+        }
+        int index = nodeCount++;
+        ids[index] = id;
+        out[index] = EMPTY;
+        in[index] = EMPTY;
+        indexes.put(id, index);
+        return index;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, size + (size >> 1)));
+        }
+        array[size] = value;
+        return array;
+    }
+
+    // Keeps the remaining neighbours in insertion order
+    private static void remove(int[] array, int size, int position) {
+        System.arraycopy(array, position + 1, array, position, size - position - 1);
+    }
+
+    private static int find(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
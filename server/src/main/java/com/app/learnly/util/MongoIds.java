@@ -0,0 +1,27 @@
+package com.app.learnly.util;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for ids kept as strings on the models but stored as ObjectIds by Mongo.
+ */
+public final class MongoIds {
+
+    private MongoIds() {
+    }
+
+    /**
+     * Mongo-generated ids are stored as ObjectIds; anything else is kept as a string.
+     */
+    public static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    public static List<Object> toObjectIds(Collection<String> ids) {
+        return ids.stream().map(MongoIds::toObjectId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package com.app.learnly.util;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset cursor over (createdAt, id), used for newest-first and
+ * oldest-first paging.
+ * Encoded as URL-safe base64 of "millis:id" so clients treat it as a token.
+ */
+public final class PageCursor {
+
+    private final Date createdAt;
+    private final String id;
+
+    public PageCursor(Date createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}.
+     *
+     * @param token The encoded cursor, may be null or blank.
+     * @return The cursor, or null if no token was given.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        long millis = Long.parseLong(raw.substring(0, separator));
+        return new PageCursor(new Date(millis), raw.substring(separator + 1));
+    }
+
+    /**
+     * Builds the "strictly older than this cursor" criteria for a descending
+     * (createdAtField, _id) sort.
+     */
+    public Criteria olderThan(String createdAtField) {
+        return new Criteria().orOperator(
+                Criteria.where(createdAtField).lt(createdAt),
+                new Criteria().andOperator(
+                        Criteria.where(createdAtField).is(createdAt),
+                        Criteria.where("_id").lt(MongoIds.toObjectId(id))));
+    }
+
+    /**
+     * Builds the "strictly newer than this cursor" criteria for an ascending
+     * (createdAtField, _id) sort.
+     */
+    public Criteria newerThan(String createdAtField) {
+        return new Criteria().orOperator(
+                Criteria.where(createdAtField).gt(createdAt),
+                new Criteria().andOperator(
+                        Criteria.where(createdAtField).is(createdAt),
+                        Criteria.where("_id").gt(MongoIds.toObjectId(id))));
+    }
+}
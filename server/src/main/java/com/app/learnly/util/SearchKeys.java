@@ -0,0 +1,59 @@
+package com.app.learnly.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized keys stored next to user names and emails so user search can
+ * run as indexed prefix lookups instead of scanning and lowercasing every
+ * user. Names are lowercased and stripped of accents ("José" is stored and
+ * searched as "jose") and split into tokens on anything that is not a
+ * letter or digit; emails are trimmed and lowercased.
+ */
+public final class SearchKeys {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKeys() {
+    }
+
+    /**
+     * @return The normalized full name, used for sorting and cursors; empty for no name.
+     */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return The distinct tokens of a name or query, in order. Tokens only
+     *         contain letters and digits, so they are safe in an anchored regex.
+     */
+    public static List<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = normalizeName(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
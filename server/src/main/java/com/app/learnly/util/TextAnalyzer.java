@@ -0,0 +1,110 @@
+package com.app.learnly.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer and light English stemmer used by the post search index.
+ * Text is lowercased, split on anything that is not a letter or digit,
+ * stripped of stop words and reduced with a small suffix-stripping stemmer
+ * so that e.g. "learning", "learned" and "learns" share one term.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @return The analyzed terms of the text, in order. Stop words are dropped.
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        if (word.length() <= MIN_STEM_LENGTH || !Character.isLetter(word.charAt(0))) {
+            return word;
+        }
+        String stem = word;
+        // Plurals and third person
+        if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        // Past tense and gerunds
+        if (stem.endsWith("eed")) {
+            return stem.length() > 4 ? stem.substring(0, stem.length() - 1) : stem;
+        }
+        for (String suffix : new String[]{"ing", "ed"}) {
+            if (stem.endsWith(suffix) && stem.length() - suffix.length() >= MIN_STEM_LENGTH
+                    && hasVowel(stem, stem.length() - suffix.length())) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                if (stem.length() > MIN_STEM_LENGTH && isDoubleConsonant(stem)
+                        && !stem.endsWith("l") && !stem.endsWith("s") && !stem.endsWith("z")) {
+                    stem = stem.substring(0, stem.length() - 1);
+                }
+                break;
+            }
+        }
+        // Common derivational suffixes
+        for (String suffix : new String[]{"ational", "ization", "fulness", "ousness", "iveness",
+                "ment", "ness", "able", "ible", "ful", "ly", "er"}) {
+            if (stem.endsWith(suffix) && stem.length() - suffix.length() >= MIN_STEM_LENGTH + 1) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                break;
+            }
+        }
+        if (stem.endsWith("e") && stem.length() > MIN_STEM_LENGTH) {
+            stem = stem.substring(0, stem.length() - 1);
+        } else if (stem.endsWith("y") && stem.length() > MIN_STEM_LENGTH && hasVowel(stem, stem.length() - 1)) {
+            // "study", "studies" and "studied" all become "studi"
+            stem = stem.substring(0, stem.length() - 1) + "i";
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDoubleConsonant(String word) {
+        int n = word.length();
+        char last = word.charAt(n - 1);
+        return last == word.charAt(n - 2) && "aeiou".indexOf(last) < 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.app.learnly.util;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+/**
+ * Helpers for the version stamps of {@link com.app.learnly.model.Versioned}
+ * documents: bumping them in targeted updates and reading them without
+ * loading the document.
+ */
+public final class VersionStamps {
+
+    private VersionStamps() {
+    }
+
+    /**
+     * Adds the version bump to a targeted update.
+     */
+    public static Update touch(Update update) {
+        return update.inc("version", 1).currentDate("lastModified");
+    }
+
+    /**
+     * @return The ETag of a document version, as sent by conditional GETs and expected in If-Match.
+     */
+    public static String etag(String id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * @return The ETag of a document that embeds its author, covering both versions so
+     *         the client's copy goes stale when either changes. If-Match only checks the
+     *         document version.
+     */
+    public static String etag(String id, long version, long authorVersion) {
+        return "\"" + id + "-" + version + "-" + authorVersion + "\"";
+    }
+
+    /**
+     * Reads only the version stamp of the first document matching the criteria.
+     *
+     * @return The stamp, or null if no document matches.
+     */
+    public static Stamp find(MongoTemplate mongoTemplate, Criteria criteria, String collection) {
+        Query query = Query.query(criteria);
+        query.fields().include("version", "lastModified");
+        Document doc = mongoTemplate.findOne(query, Document.class, collection);
+        if (doc == null) {
+            return null;
+        }
+        Number version = doc.get("version", Number.class);
+        return new Stamp(doc.get("_id").toString(), version != null ? version.longValue() : 0,
+                doc.getDate("lastModified"));
+    }
+
+    /**
+     * Reads the version stamp of a document together with that of the user its
+     * {@code @DBRef} field points to, for responses that embed the resolved user.
+     * Two indexed reads, neither loading a full document.
+     *
+     * @param userField Name of the {@code @DBRef} field holding the author.
+     * @return The combined stamp, or null if no document matches. Without an author the
+     *         stamp is the document's own.
+     */
+    public static Stamp findWithAuthor(MongoTemplate mongoTemplate, Criteria criteria, String collection,
+                                       String userField) {
+        Query query = Query.query(criteria);
+        query.fields().include("version", "lastModified", userField);
+        Document doc = mongoTemplate.findOne(query, Document.class, collection);
+        if (doc == null) {
+            return null;
+        }
+        Number version = doc.get("version", Number.class);
+        Stamp stamp = new Stamp(doc.get("_id").toString(), version != null ? version.longValue() : 0,
+                doc.getDate("lastModified"));
+        if (!(doc.get(userField) instanceof DBRef ref)) {
+            return stamp;
+        }
+        Stamp author = find(mongoTemplate, Criteria.where("_id").is(ref.getId()), ref.getCollectionName());
+        return author != null ? stamp.withAuthor(author) : stamp;
+    }
+
+    /**
+     * @param id The document id.
+     * @param version The version, 0 for documents written before stamps existed.
+     * @param lastModified Time of the last write, or null if unknown.
+     * @param authorVersion Version of the embedded author, or null if the document embeds none.
+     */
+    public record Stamp(String id, long version, Date lastModified, Long authorVersion) {
+
+        public Stamp(String id, long version, Date lastModified) {
+            this(id, version, lastModified, null);
+        }
+
+        public String etag() {
+            return authorVersion != null ? VersionStamps.etag(id, version, authorVersion) : VersionStamps.etag(id, version);
+        }
+
+        // Last-Modified is the later of the two writes, so it moves with the ETag
+        Stamp withAuthor(Stamp author) {
+            Date latest = lastModified;
+            if (latest == null || (author.lastModified() != null && author.lastModified().after(latest))) {
+                latest = author.lastModified();
+            }
+            return new Stamp(id, version, latest, author.version());
+        }
+
+        // -1 tells WebRequest.checkNotModified there is no Last-Modified to compare
+        public long lastModifiedMillis() {
+            return lastModified != null ? lastModified.getTime() : -1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.learnly.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentPatcherTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+
+    @Test
+    void expectedVersionReadsTheVersionFromAStrongETag() {
+        assertThat(DocumentPatcher.expectedVersion("\"" + ID + "-7\"", ID)).isEqualTo(7L);
+        assertThat(DocumentPatcher.expectedVersion("  \"" + ID + "-0\" ", ID)).isZero();
+    }
+
+    @Test
+    void expectedVersionIgnoresTheAuthorVersionOfAnEmbeddingETag() {
+        assertThat(DocumentPatcher.expectedVersion("\"" + ID + "-7-3\"", ID)).isEqualTo(7L);
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("\"" + ID + "-7-\"", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("\"" + ID + "-7-x\"", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void expectedVersionIsNullWithoutAPrecondition() {
+        assertThat(DocumentPatcher.expectedVersion(null, ID)).isNull();
+        assertThat(DocumentPatcher.expectedVersion(" ", ID)).isNull();
+        assertThat(DocumentPatcher.expectedVersion("*", ID)).isNull();
+    }
+
+    @Test
+    void expectedVersionFailsThePreconditionForAWeakETag() {
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("W/\"" + ID + "-7\"", ID))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+    }
+
+    @Test
+    void expectedVersionRejectsETagsOfOtherDocumentsAndMalformedOnes() {
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("\"other-7\"", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("\"" + ID + "-7\", \"" + ID + "-8\"", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion("\"" + ID + "-seven\"", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DocumentPatcher.expectedVersion(ID + "-7", ID))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Follow;
+import com.app.learnly.model.User;
+import com.app.learnly.util.VersionStamps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowServiceTest {
+
+    private static final String USER_ID = "65f0c0ffee0000000000beef";
+    private static final String OTHER_ID = "65f0c0ffee0000000000abcd";
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations counts;
+    private FollowSuggestionService suggestions;
+    private FollowService followService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        counts = mock(BulkOperations.class);
+        suggestions = mock(FollowSuggestionService.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(counts);
+        followService = new FollowService();
+        ReflectionTestUtils.setField(followService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(followService, "followSuggestionService", suggestions);
+    }
+
+    @Test
+    void removingADeletedUsersEdgesDecrementsTheOtherEnds() {
+        Follow following = edge("e1", USER_ID, OTHER_ID);
+        Follow follower = edge("e2", OTHER_ID, USER_ID);
+        List<Query> reads = new ArrayList<>();
+        when(mongoTemplate.find(any(Query.class), eq(Follow.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            reads.add(query);
+            // Each index yields one batch, then nothing once it has been removed
+            return switch (reads.size()) {
+                case 1 -> List.of(following);
+                case 3 -> List.of(follower);
+                default -> List.of();
+            };
+        });
+
+        followService.removeAllEdges(USER_ID);
+
+        assertThat(reads).hasSize(4);
+        assertThat(reads.get(0).getQueryObject()).containsEntry("followerId", USER_ID);
+        assertThat(reads.get(2).getQueryObject()).containsEntry("followeeId", USER_ID);
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(Follow.class));
+        verify(counts).updateOne(any(Query.class), eq(update("followerCount")));
+        verify(counts).updateOne(any(Query.class), eq(update("followingCount")));
+        verify(counts, times(2)).execute();
+        verify(suggestions).onUnfollow(USER_ID, OTHER_ID);
+        verify(suggestions).onUnfollow(OTHER_ID, USER_ID);
+    }
+
+    private static Update update(String field) {
+        return VersionStamps.touch(new Update().inc(field, -1));
+    }
+
+    private static Follow edge(String id, String followerId, String followeeId) {
+        Follow follow = new Follow(followerId, followeeId);
+        follow.setId(id);
+        return follow;
+    }
+}
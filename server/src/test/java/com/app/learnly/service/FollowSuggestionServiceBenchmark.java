@@ -0,0 +1,88 @@
+package com.app.learnly.service;
+
+import com.app.learnly.util.FollowGraph;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion scoring latency and the memory per edge of the in-memory follow
+ * graph, on synthetic graphs of one and three million edges. Latency covers
+ * the in-memory scoring only; the summary lookup for the returned users is
+ * one batched query. Compare with suggestions.budget-ms=20.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FollowSuggestionServiceBenchmark {
+
+    private static final int FOLLOWS_PER_USER = 10;
+
+    @Param({"100000", "300000"})
+    public int users;
+
+    private FollowSuggestionService service;
+    private FollowGraph graph;
+    private int[] nodes;
+    private int next;
+    private long bytesPerEdge;
+
+    /**
+     * Reported next to the latency, so a change to the graph layout shows up
+     * in the same run.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerEdge;
+    }
+
+    @Setup
+    public void setUp() {
+        service = new FollowSuggestionService();
+        ReflectionTestUtils.setField(service, "maxFanout", 200);
+
+        Random random = new Random(42);
+        graph = new FollowGraph(users);
+        for (int user = 0; user < users; user++) {
+            for (int i = 0; i < FOLLOWS_PER_USER; i++) {
+                // Skewed towards low ids, so some users are hubs as in a real follow graph
+                int followee = (int) (users * Math.pow(random.nextDouble(), 3));
+                if (followee != user) {
+                    graph.addEdge("user" + user, "user" + followee);
+                }
+            }
+        }
+        graph.trim();
+        bytesPerEdge = graph.estimatedBytes() / graph.edgeCount();
+
+        nodes = new int[4096];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.indexOf("user" + random.nextInt(users));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> suggest(Footprint footprint) {
+        footprint.bytesPerEdge = bytesPerEdge;
+        int node = nodes[next++ & (nodes.length - 1)];
+        return service.score(graph, node, Long.MAX_VALUE).best(FollowSuggestionService.MAX_SUGGESTIONS);
+    }
+}
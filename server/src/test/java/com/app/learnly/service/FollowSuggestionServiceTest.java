@@ -0,0 +1,73 @@
+package com.app.learnly.service;
+
+import com.app.learnly.util.FollowGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowSuggestionServiceTest {
+
+    private FollowSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FollowSuggestionService();
+        ReflectionTestUtils.setField(service, "maxFanout", 200);
+    }
+
+    @Test
+    void excludedNodesAreNeverCandidates() {
+        FollowSuggestionService.Candidates candidates = new FollowSuggestionService.Candidates(4);
+        candidates.exclude(1);
+        candidates.add(1, 10f, 1);
+        candidates.add(2, 1f, 1);
+        candidates.add(3, 2f, 0);
+        candidates.exclude(3);
+
+        assertThat(nodes(candidates, 10)).containsExactly(2);
+    }
+
+    @Test
+    void candidatesAreRankedByAccumulatedScore() {
+        // Small initial capacity, so the map also has to grow
+        FollowSuggestionService.Candidates candidates = new FollowSuggestionService.Candidates(1);
+        for (int node = 0; node < 100; node++) {
+            candidates.add(node, node, 0);
+        }
+        candidates.add(5, 1000f, 1);
+
+        assertThat(nodes(candidates, 3)).containsExactly(5, 99, 98);
+    }
+
+    @Test
+    void scoreSkipsTheUserAndUsersAlreadyFollowed() {
+        FollowGraph graph = new FollowGraph(8);
+        graph.addEdge("me", "friend");
+        graph.addEdge("me", "followed");
+        graph.addEdge("friend", "followed");
+        graph.addEdge("friend", "me");
+        graph.addEdge("friend", "candidate");
+        graph.addEdge("fan", "me");
+        graph.addEdge("fan", "other");
+
+        FollowSuggestionService.Candidates candidates =
+                service.score(graph, graph.indexOf("me"), Long.MAX_VALUE);
+
+        List<String> ids = nodes(candidates, 10).stream().map(graph::idOf).toList();
+        // "fan" follows the caller, which outweighs one friend-of-friend path
+        assertThat(ids).containsExactly("fan", "candidate", "other");
+    }
+
+    private static List<Integer> nodes(FollowSuggestionService.Candidates candidates, int limit) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int slot : candidates.best(limit)) {
+            nodes.add(candidates.keys[slot]);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,181 @@
+package com.app.learnly.service;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a like followed by an unlike against a real MongoDB, for the
+ * current path (plain ids, one upsert or delete on the unique index) and the
+ * DBRef path it replaced (load user, load post and its author, unindexed
+ * DBRef like lookup, save, counter update). Both run on the same data: 200k
+ * likes, half in each form. Needs a MongoDB at benchmark.mongo.uri
+ * (default localhost), set in the fork with jmh.args="LikeServiceBenchmark
+ * -jvmArgsPrepend -Dbenchmark.mongo.uri=..."; the learnly_benchmark
+ * database is dropped on setup and teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LikeServiceBenchmark {
+
+    private static final String DATABASE = "learnly_benchmark";
+    private static final int USERS = 1_000;
+    private static final int POSTS = 10_000;
+    private static final int LIKES_PER_FORM = 100_000;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private LikeService likeService;
+    private final List<String> providerIds = new ArrayList<>();
+    private final List<ObjectId> postIds = new ArrayList<>();
+    private final Random random = new Random(16);
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+
+        List<ObjectId> userIds = new ArrayList<>();
+        List<Document> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            ObjectId id = new ObjectId();
+            userIds.add(id);
+            providerIds.add("provider-" + i);
+            users.add(new Document("_id", id).append("providerId", "provider-" + i).append("name", "User " + i)
+                    .append("email", "user" + i + "@example.com").append("savedPosts", List.of()));
+        }
+        mongoTemplate.insert(users, "users");
+
+        List<Document> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            ObjectId id = new ObjectId();
+            postIds.add(id);
+            posts.add(new Document("_id", id).append("title", "Post " + i).append("content", "x".repeat(200))
+                    .append("user", new DBRef("users", userIds.get(i % USERS))).append("tags", List.of("java"))
+                    .append("likeCount", 0L).append("commentCount", 0L).append("createdAt", new Date()));
+        }
+        mongoTemplate.insert(posts, "posts");
+
+        List<Document> likes = new ArrayList<>();
+        Set<String> pairs = new HashSet<>();
+        while (pairs.size() < LIKES_PER_FORM) {
+            ObjectId user = userIds.get(random.nextInt(USERS));
+            ObjectId post = postIds.get(random.nextInt(POSTS));
+            if (!pairs.add(user + ":" + post)) {
+                continue;
+            }
+            likes.add(new Document("user", new DBRef("users", user)).append("post", new DBRef("posts", post)));
+            likes.add(new Document("userId", user.toHexString()).append("postId", post.toHexString()));
+        }
+        mongoTemplate.insert(likes, "likes");
+
+        // The indexes the application declares; the DBRef path never had one for its lookup
+        mongoTemplate.indexOps("users").ensureIndex(new Index().on("providerId", Sort.Direction.ASC));
+        mongoTemplate.indexOps("likes").ensureIndex(new Index().on("postId", Sort.Direction.ASC)
+                .on("userId", Sort.Direction.ASC).unique().sparse());
+
+        EngagementCounterService counters = new EngagementCounterService();
+        ReflectionTestUtils.setField(counters, "mongoTemplate", mongoTemplate);
+        LikeMigrationService migration = new LikeMigrationService();
+        ReflectionTestUtils.setField(migration, "finished", true);
+        likeService = new LikeService();
+        ReflectionTestUtils.setField(likeService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(likeService, "engagementCounterService", counters);
+        ReflectionTestUtils.setField(likeService, "likeWriteBuffer", new LikeWriteBuffer());
+        ReflectionTestUtils.setField(likeService, "likeMigrationService", migration);
+        ReflectionTestUtils.setField(likeService, "trendingTagService", new TrendingTagService());
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        int user = random.nextInt(USERS);
+        String postId = postIds.get(random.nextInt(POSTS)).toHexString();
+        OAuth2User principal = new DefaultOAuth2User(List.of(), Map.of("sub", providerIds.get(user)), "sub");
+        likeService.likePost(postId, principal);
+        likeService.unlikePost(postId, principal);
+    }
+
+    @Benchmark
+    public void likeAndUnlikeWithDbRefs() {
+        String providerId = providerIds.get(random.nextInt(USERS));
+        ObjectId postId = postIds.get(random.nextInt(POSTS));
+        legacyLike(providerId, postId);
+        legacyUnlike(providerId, postId);
+    }
+
+    // The replaced like path, as the repositories ran it: full user, full post with its eager @DBRef author,
+    // a lookup on the DBRef pair with no supporting index, the save and the counter update
+    private void legacyLike(String providerId, ObjectId postId) {
+        Document user = mongoTemplate.findOne(Query.query(Criteria.where("providerId").is(providerId)), Document.class, "users");
+        Document post = loadPostWithAuthor(postId);
+        Query pair = likeByRefs(user, post);
+        if (mongoTemplate.findOne(pair, Document.class, "likes") != null) {
+            return;
+        }
+        mongoTemplate.insert(new Document("user", new DBRef("users", user.get("_id")))
+                .append("post", new DBRef("posts", postId)).append("createdAt", new Date()), "likes");
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)), new Update().inc("likeCount", 1), "posts");
+    }
+
+    private void legacyUnlike(String providerId, ObjectId postId) {
+        Document user = mongoTemplate.findOne(Query.query(Criteria.where("providerId").is(providerId)), Document.class, "users");
+        Document post = loadPostWithAuthor(postId);
+        if (mongoTemplate.remove(likeByRefs(user, post), "likes").getDeletedCount() > 0) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)), new Update().inc("likeCount", -1), "posts");
+        }
+    }
+
+    private Document loadPostWithAuthor(ObjectId postId) {
+        Document post = mongoTemplate.findById(postId, Document.class, "posts");
+        DBRef author = (DBRef) post.get("user");
+        mongoTemplate.findById(author.getId(), Document.class, author.getCollectionName());
+        return post;
+    }
+
+    private static Query likeByRefs(Document user, Document post) {
+        return Query.query(Criteria.where("user").is(new DBRef("users", user.get("_id")))
+                .and("post").is(new DBRef("posts", post.get("_id"))));
+    }
+}
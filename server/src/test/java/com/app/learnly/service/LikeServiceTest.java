@@ -0,0 +1,116 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Like;
+import com.app.learnly.model.Post;
+import com.app.learnly.model.User;
+import com.mongodb.client.result.DeleteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Round trips and idempotence of the like path. Every MongoTemplate call
+ * and counter update is one round trip; the path this replaced needed four
+ * (user, post, DBRef like lookup, save) and could insert duplicates.
+ */
+class LikeServiceTest {
+
+    private static final String POST_ID = "65f0c0ffee0000000000abcd";
+    private static final String USER_ID = "65f0c0ffee0000000000beef";
+
+    private MongoTemplate mongoTemplate;
+    private EngagementCounterService counters;
+    private LikeService likeService;
+    private OAuth2User principal;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        counters = mock(EngagementCounterService.class);
+        LikeWriteBuffer buffer = mock(LikeWriteBuffer.class);
+        likeService = new LikeService();
+        ReflectionTestUtils.setField(likeService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(likeService, "engagementCounterService", counters);
+        ReflectionTestUtils.setField(likeService, "likeWriteBuffer", buffer);
+        ReflectionTestUtils.setField(likeService, "likeMigrationService", mock(LikeMigrationService.class));
+        ReflectionTestUtils.setField(likeService, "trendingTagService", mock(TrendingTagService.class));
+
+        principal = mock(OAuth2User.class);
+        when(principal.getAttribute("sub")).thenReturn("provider-1");
+        User user = new User();
+        user.setId(USER_ID);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user);
+        Post post = new Post();
+        post.setTags(List.of("java"));
+        when(counters.incrementLikeCount(POST_ID)).thenReturn(post);
+    }
+
+    @Test
+    void firstLikeTakesThreeRoundTrips() {
+        likeService.likePost(POST_ID, principal);
+
+        // User id and like upsert, plus the counter increment
+        assertThat(templateCalls()).isEqualTo(2);
+        verify(counters).incrementLikeCount(POST_ID);
+    }
+
+    @Test
+    void repeatedLikeReturnsTheExistingLikeWithoutCounting() {
+        Like existing = new Like(USER_ID, POST_ID);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Like.class))).thenReturn(existing);
+
+        assertThat(likeService.likePost(POST_ID, principal)).isSameAs(existing);
+
+        verify(counters, never()).incrementLikeCount(anyString());
+        assertThat(templateCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void likeThatLosesARaceReturnsTheWinnersLikeWithoutCounting() {
+        Like winner = new Like(USER_ID, POST_ID);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Like.class))).thenThrow(new DuplicateKeyException("postId_userId"));
+        when(mongoTemplate.findOne(any(Query.class), eq(Like.class))).thenReturn(winner);
+
+        assertThat(likeService.likePost(POST_ID, principal)).isSameAs(winner);
+
+        verify(counters, never()).incrementLikeCount(anyString());
+    }
+
+    @Test
+    void unlikeIsOneDeleteAndCountsOnlyARemovedLike() {
+        when(mongoTemplate.remove(any(Query.class), eq(Like.class)))
+                .thenReturn(DeleteResult.acknowledged(1), DeleteResult.acknowledged(0));
+
+        likeService.unlikePost(POST_ID, principal);
+        likeService.unlikePost(POST_ID, principal);
+
+        verify(counters).adjustLikeCount(POST_ID, -1);
+        verify(counters).adjustLikeCount(anyString(), anyLong());
+        assertThat(templateCalls()).isEqualTo(4);
+    }
+
+    private int templateCalls() {
+        return mockingDetails(mongoTemplate).getInvocations().size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.CursorPage;
+import com.app.learnly.model.Post;
+import com.app.learnly.model.PostView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostSearchServiceTest {
+
+    private PostSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        HydrationService hydrationService = mock(HydrationService.class);
+        when(hydrationService.loadPostsInOrder(anyList())).thenAnswer(invocation -> {
+            List<String> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> {
+                PostView view = new PostView();
+                view.setId(id);
+                return view;
+            }).toList();
+        });
+        searchService = new PostSearchService();
+        ReflectionTestUtils.setField(searchService, "hydrationService", hydrationService);
+    }
+
+    @Test
+    void titleMatchesOutrankContentMatches() {
+        searchService.index(post("content", "Notes", "A short note about spring in passing", List.of()));
+        searchService.index(post("title", "Spring basics", "Getting started", List.of()));
+        searchService.index(post("tag", "Getting started", "Notes", List.of("spring")));
+
+        assertThat(ids(searchService.search("spring", null, 10))).containsExactly("title", "tag", "content");
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        searchService.index(post("common", "Java", "java java", List.of()));
+        searchService.index(post("both", "Java", "kotlin", List.of()));
+        for (int i = 0; i < 10; i++) {
+            searchService.index(post("filler" + i, "Java", "more java", List.of()));
+        }
+
+        // Only "both" matches the rare term, which outweighs extra occurrences of the common one
+        assertThat(ids(searchService.search("java kotlin", null, 1))).containsExactly("both");
+    }
+
+    @Test
+    void queriesMatchInflectedForms() {
+        searchService.index(post("post", "Learning Mongo", "", List.of()));
+
+        assertThat(ids(searchService.search("learned", null, 10))).containsExactly("post");
+    }
+
+    @Test
+    void phrasesMustAppearInOrderWithinOneField() {
+        searchService.index(post("phrase", "Dependency injection in Spring", "", List.of()));
+        searchService.index(post("scattered", "Injection of a dependency", "", List.of()));
+        searchService.index(post("acrossFields", "Notes on dependency", "injection everywhere", List.of()));
+
+        assertThat(ids(searchService.search("\"dependency injection\"", null, 10))).containsExactly("phrase");
+    }
+
+    @Test
+    void pagesContinueAfterTheCursorWithoutRepeats() {
+        for (int i = 0; i < 5; i++) {
+            searchService.index(post("post" + i, "Spring", "spring ".repeat(i + 1), List.of()));
+        }
+
+        CursorPage<PostView> first = searchService.search("spring", null, 2);
+        CursorPage<PostView> second = searchService.search("spring", first.getNextCursor(), 2);
+        CursorPage<PostView> third = searchService.search("spring", second.getNextCursor(), 2);
+
+        assertThat(ids(first)).hasSize(2);
+        assertThat(ids(second)).hasSize(2).doesNotContainAnyElementsOf(ids(first));
+        assertThat(ids(third)).hasSize(1);
+        assertThat(third.getNextCursor()).isNull();
+    }
+
+    @Test
+    void reindexedAndRemovedPostsAreUpToDate() {
+        searchService.index(post("post", "Spring", "", List.of()));
+        searchService.index(post("post", "Mongo", "", List.of()));
+
+        assertThat(ids(searchService.search("spring", null, 10))).isEmpty();
+        assertThat(ids(searchService.search("mongo", null, 10))).containsExactly("post");
+
+        searchService.remove("post");
+        assertThat(ids(searchService.search("mongo", null, 10))).isEmpty();
+    }
+
+    @Test
+    void queriesWithoutSearchableTermsAreRejected() {
+        assertThatThrownBy(() -> searchService.search("the of", null, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Post post(String id, String title, String content, List<String> tags) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContent(content);
+        post.setTags(tags);
+        return post;
+    }
+
+    private static List<String> ids(CursorPage<PostView> page) {
+        return page.getItems().stream().map(PostView::getId).toList();
+    }
+}
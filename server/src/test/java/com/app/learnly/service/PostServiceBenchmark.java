@@ -0,0 +1,162 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held and bytes allocated while the full post listing is streamed as
+ * JSON, as GET /api/posts does, from a real MongoDB holding one thousand to
+ * one million posts. The fork gets a 64 MB heap, which a listing that loads
+ * the whole collection does not fit at the larger sizes; peakOldGenBytes
+ * should stay flat across the sizes while allocation (from -prof gc) grows
+ * with them. Needs a MongoDB at benchmark.mongo.uri (default localhost),
+ * set in the fork with jmh.args="PostServiceBenchmark -prof gc
+ * -jvmArgsPrepend -Dbenchmark.mongo.uri=..."; the learnly_benchmark
+ * database is dropped on setup and teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class PostServiceBenchmark {
+
+    private static final String DATABASE = "learnly_benchmark";
+    private static final int USERS = 1_000;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int posts;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private PostService postService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Peak usage of the heap pools that only retained objects reach, so
+     * short-lived garbage in the young generation does not count.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long peakOldGenBytes;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.gc();
+            oldGenPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        @TearDown(Level.Invocation)
+        public void record() {
+            peakOldGenBytes = oldGenPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        }
+
+        private static List<MemoryPoolMXBean> oldGenPools() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .filter(pool -> !pool.getName().contains("Eden") && !pool.getName().contains("Survivor"))
+                    .toList();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+
+        List<ObjectId> userIds = new ArrayList<>();
+        List<Document> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            ObjectId id = new ObjectId();
+            userIds.add(id);
+            users.add(new Document("_id", id).append("name", "User " + i).append("picture", "https://example.com/" + i));
+        }
+        mongoTemplate.insert(users, "users");
+
+        List<Document> batch = new ArrayList<>(INSERT_BATCH);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < posts; i++) {
+            batch.add(new Document("title", "Post " + i).append("content", "x".repeat(200))
+                    .append("user", new DBRef("users", userIds.get(i % USERS))).append("tags", List.of("java"))
+                    .append("likeCount", 0L).append("commentCount", 0L).append("createdAt", new Date(now - i)));
+            if (batch.size() == INSERT_BATCH) {
+                mongoTemplate.insert(batch, PostService.POSTS_COLLECTION);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, PostService.POSTS_COLLECTION);
+        }
+        // The index the listing's sort uses
+        mongoTemplate.indexOps(PostService.POSTS_COLLECTION).ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+
+        HydrationService hydrationService = new HydrationService();
+        ReflectionTestUtils.setField(hydrationService, "mongoTemplate", mongoTemplate);
+        postService = new PostService();
+        ReflectionTestUtils.setField(postService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(postService, "hydrationService", hydrationService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public void streamAllPosts(Footprint footprint) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            postService.streamAllPosts(post -> write(generator, post));
+            generator.writeEndArray();
+        }
+    }
+
+    private void write(JsonGenerator generator, PostView post) {
+        try {
+            objectMapper.writeValue(generator, post);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private PostService postService;
+
+    // Posts read from the cursor but not yet handed to the sink
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private long maxInFlight;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        HydrationService hydrationService = mock(HydrationService.class);
+        when(hydrationService.hydratePosts(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        postService = new PostService();
+        ReflectionTestUtils.setField(postService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(postService, "hydrationService", hydrationService);
+    }
+
+    /**
+     * The posts held by a streaming listing stay bounded by one hydration
+     * batch however large the collection grows, instead of the whole
+     * collection as with findAll(). PostServiceBenchmark measures the heap
+     * this keeps against a real database.
+     */
+    @Test
+    void streamAllPostsHoldsOneBatchWhateverTheCollectionSize() {
+        for (long posts : new long[]{1_000, 100_000, 1_000_000}) {
+            read.set(0);
+            written.set(0);
+            maxInFlight = 0;
+            when(mongoTemplate.stream(any(Query.class), eq(PostView.class), eq(PostService.POSTS_COLLECTION)))
+                    .thenAnswer(invocation -> LongStream.range(0, posts).mapToObj(this::readPost));
+
+            postService.streamAllPosts(post -> written.incrementAndGet());
+
+            assertThat(written.get()).isEqualTo(posts);
+            assertThat(maxInFlight).isLessThanOrEqualTo(100);
+        }
+    }
+
+    @Test
+    void streamAllPostsWritesTheLastPartialBatch() {
+        when(mongoTemplate.stream(any(Query.class), eq(PostView.class), eq(PostService.POSTS_COLLECTION)))
+                .thenAnswer(invocation -> LongStream.range(0, 250).mapToObj(this::readPost));
+        List<String> ids = new ArrayList<>();
+
+        postService.streamAllPosts(post -> ids.add(post.getId()));
+
+        assertThat(ids).hasSize(250).startsWith("0").endsWith("249");
+    }
+
+    private PostView readPost(long number) {
+        maxInFlight = Math.max(maxInFlight, read.incrementAndGet() - written.get());
+        PostView post = new PostView();
+        post.setId(Long.toString(number));
+        post.setCreatedAt(new Date(number));
+        return post;
+    }
+}
@@ -0,0 +1,85 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to score one request's candidates with the recency/engagement scorer,
+ * at the default feed.ranking.max-candidates=500 and well above it. Compare
+ * with the feed.ranking.budget-ms=25 a request may spend on ranking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecencyEngagementScorerBenchmark {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Param({"500", "10000"})
+    public int candidates;
+
+    private RecencyEngagementScorer scorer;
+    private List<PostView> posts;
+    private FeedScorer.Context context;
+
+    @Setup
+    public void setUp() {
+        scorer = new RecencyEngagementScorer();
+        ReflectionTestUtils.setField(scorer, "halfLifeHours", 24.0);
+
+        Random random = new Random(9);
+        Set<String> followed = new HashSet<>();
+        List<String> authors = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String author = new ObjectId().toHexString();
+            authors.add(author);
+            if (i % 5 == 0) {
+                followed.add(author);
+            }
+        }
+        posts = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            PostView post = new PostView();
+            post.setCreatedAt(new Date(NOW - (long) (random.nextDouble() * 14 * 24 * HOUR)));
+            post.setLikeCount(random.nextInt(500));
+            post.setCommentCount(random.nextInt(50));
+            post.setUserRef(new DBRef("users", new ObjectId(authors.get(random.nextInt(authors.size())))));
+            posts.add(post);
+        }
+        context = new FeedScorer.Context(authors.get(0), followed, NOW);
+    }
+
+    @Benchmark
+    public double scoreCandidates() {
+        double sum = 0;
+        for (PostView post : posts) {
+            sum += scorer.baseScore(post, context.nowMillis()) * scorer.affinity(post, context);
+        }
+        return sum;
+    }
+}
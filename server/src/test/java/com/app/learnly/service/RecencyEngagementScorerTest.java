@@ -0,0 +1,87 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.PostView;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RecencyEngagementScorerTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long NOW = 1_700_000_000_000L;
+
+    private RecencyEngagementScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        scorer = new RecencyEngagementScorer();
+        ReflectionTestUtils.setField(scorer, "halfLifeHours", 24.0);
+    }
+
+    @Test
+    void scoreHalvesEveryHalfLifeWithoutEngagement() {
+        double fresh = scorer.baseScore(post(NOW, 0, 0, null), NOW);
+        double dayOld = scorer.baseScore(post(NOW - 24 * HOUR, 0, 0, null), NOW);
+
+        assertThat(fresh).isEqualTo(1.0);
+        assertThat(dayOld).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void engagementRaisesTheScoreAndCommentsCountMore() {
+        double none = scorer.baseScore(post(NOW - HOUR, 0, 0, null), NOW);
+        double liked = scorer.baseScore(post(NOW - HOUR, 10, 0, null), NOW);
+        double commented = scorer.baseScore(post(NOW - HOUR, 0, 10, null), NOW);
+
+        assertThat(liked).isGreaterThan(none);
+        assertThat(commented).isGreaterThan(liked);
+    }
+
+    @Test
+    void velocityIsDampedSoOldPopularPostsDoNotDominate() {
+        double viralLastWeek = scorer.baseScore(post(NOW - 7 * 24 * HOUR, 5_000, 500, null), NOW);
+        double newWithOneLike = scorer.baseScore(post(NOW - HOUR, 1, 0, null), NOW);
+
+        assertThat(newWithOneLike).isGreaterThan(viralLastWeek);
+    }
+
+    @Test
+    void futureAndUndatedPostsAreBounded() {
+        assertThat(scorer.baseScore(post(NOW + HOUR, 0, 0, null), NOW)).isEqualTo(1.0);
+        PostView undated = new PostView();
+        assertThat(scorer.baseScore(undated, NOW)).isZero();
+    }
+
+    @Test
+    void affinityFavoursFollowedAuthorsThenOwnPosts() {
+        String reader = new ObjectId().toHexString();
+        String followed = new ObjectId().toHexString();
+        String stranger = new ObjectId().toHexString();
+        FeedScorer.Context context = new FeedScorer.Context(reader, Set.of(followed), NOW);
+
+        assertThat(scorer.affinity(post(NOW, 0, 0, followed), context)).isEqualTo(1.5);
+        assertThat(scorer.affinity(post(NOW, 0, 0, reader), context)).isEqualTo(1.2);
+        assertThat(scorer.affinity(post(NOW, 0, 0, stranger), context)).isEqualTo(1.0);
+        assertThat(scorer.affinity(post(NOW, 0, 0, null), context)).isEqualTo(1.0);
+    }
+
+    private static PostView post(long createdAt, long likes, long comments, String authorId) {
+        PostView post = new PostView();
+        post.setCreatedAt(new Date(createdAt));
+        post.setLikeCount(likes);
+        post.setCommentCount(comments);
+        if (authorId != null) {
+            post.setUserRef(new DBRef("users", new ObjectId(authorId)));
+        }
+        return post;
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.learnly.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagIndexServiceTest {
+
+    @Test
+    void deltasOfANewPostCountEachTagOnce() {
+        assertThat(TagIndexService.deltas(null, List.of("java", "spring", "java")))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("java", 1, "spring", 1));
+    }
+
+    @Test
+    void deltasOfADeletedPostRemoveEachTag() {
+        assertThat(TagIndexService.deltas(List.of("java", "spring"), null))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("java", -1, "spring", -1));
+    }
+
+    @Test
+    void deltasOfARetagOnlyChangeAddedAndRemovedTags() {
+        assertThat(TagIndexService.deltas(List.of("java", "spring"), List.of("spring", "mongo")))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("java", -1, "mongo", 1));
+        assertThat(TagIndexService.deltas(List.of("java"), List.of("java"))).isEmpty();
+    }
+
+    @Test
+    void deltasIgnoreWhitespaceAndBlankTags() {
+        assertThat(TagIndexService.deltas(List.of(" java"), Arrays.asList("java ", "", null, "  "))).isEmpty();
+    }
+
+    @Test
+    void normalizeTagsTrimsAndDropsBlanksAndDuplicates() {
+        assertThat(TagIndexService.normalizeTags(Arrays.asList(" java", "spring ", "java", "", null)))
+                .containsExactly("java", "spring");
+        assertThat(TagIndexService.normalizeTags(null)).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.app.learnly.service;
+
+import com.app.learnly.model.Timeline;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimelineServiceTest {
+
+    @Test
+    void mergeInterleavesSourcesNewestFirstAndDropsDuplicates() {
+        List<Timeline.Entry> pushed = List.of(entry("p5", 50), entry("p3", 30), entry("p1", 10));
+        List<Timeline.Entry> pulled = List.of(entry("p4", 40), entry("p3", 30), entry("p2", 20));
+
+        List<Timeline.Entry> merged = TimelineService.mergeNewestFirst(List.of(pushed, pulled), 10);
+
+        assertThat(merged).extracting(Timeline.Entry::getPostId).containsExactly("p5", "p4", "p3", "p2", "p1");
+    }
+
+    @Test
+    void mergeStopsAtTheLimit() {
+        List<Timeline.Entry> pushed = List.of(entry("p3", 30), entry("p1", 10));
+        List<Timeline.Entry> pulled = List.of(entry("p2", 20));
+
+        assertThat(TimelineService.mergeNewestFirst(List.of(pushed, pulled), 2))
+                .extracting(Timeline.Entry::getPostId).containsExactly("p3", "p2");
+    }
+
+    @Test
+    void undatedEntriesSortLastInsteadOfFailing() {
+        Timeline.Entry undated = new Timeline.Entry("p0", "a", null);
+        List<Timeline.Entry> entries = new ArrayList<>(List.of(undated, entry("p1", 10), entry("p2", 20)));
+
+        entries.sort(TimelineService.NEWEST_FIRST);
+
+        assertThat(entries).extracting(Timeline.Entry::getPostId).containsExactly("p2", "p1", "p0");
+    }
+
+    @Test
+    void entriesAtTheSameTimeAreOrderedByPostId() {
+        List<Timeline.Entry> entries = new ArrayList<>(List.of(entry("a", 10), entry("b", 10)));
+
+        entries.sort(TimelineService.NEWEST_FIRST);
+
+        assertThat(entries).extracting(Timeline.Entry::getPostId).containsExactly("b", "a");
+    }
+
+    private static Timeline.Entry entry(String postId, long createdAt) {
+        return new Timeline.Entry(postId, "author", new Date(createdAt));
+    }
+}
@@ -0,0 +1,48 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteRangeTest {
+
+    @Test
+    void parsesAClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=0-99", 1000);
+
+        assertThat(range).isEqualTo(new ByteRange(0, 99));
+        assertThat(range.length()).isEqualTo(100);
+        assertThat(range.contentRange(1000)).isEqualTo("bytes 0-99/1000");
+    }
+
+    @Test
+    void openAndOversizedRangesEndAtTheLastByte() {
+        assertThat(ByteRange.parse("bytes=500-", 1000)).isEqualTo(new ByteRange(500, 999));
+        assertThat(ByteRange.parse("bytes=500-5000", 1000)).isEqualTo(new ByteRange(500, 999));
+        assertThat(ByteRange.parse("bytes= 10 - 19 ", 1000)).isEqualTo(new ByteRange(10, 19));
+    }
+
+    @Test
+    void suffixRangesServeTheLastBytes() {
+        assertThat(ByteRange.parse("bytes=-100", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-5000", 1000)).isEqualTo(new ByteRange(0, 999));
+    }
+
+    @Test
+    void missingMultipleAndInvalidRangesServeTheWholeResource() {
+        assertThat(ByteRange.parse(null, 1000)).isNull();
+        assertThat(ByteRange.parse("items=0-10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-10,20-30", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=a-b", 1000)).isNull();
+    }
+
+    @Test
+    void unsatisfiableRangesAreRejected() {
+        assertThatThrownBy(() -> ByteRange.parse("bytes=1000-", 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=50-10", 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=-0", 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=0-", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
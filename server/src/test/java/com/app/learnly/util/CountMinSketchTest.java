@@ -0,0 +1,74 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesAreExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+        assertThat(sketch.add("java", 1)).isEqualTo(1);
+        assertThat(sketch.add("java", 2.5)).isEqualTo(3.5);
+        assertThat(sketch.estimate("java")).isEqualTo(3.5);
+        assertThat(sketch.estimate("never-seen")).isZero();
+    }
+
+    @Test
+    void estimatesNeverUndercountAndStayWithinTheErrorBound() {
+        int depth = 4;
+        int width = 256;
+        CountMinSketch sketch = new CountMinSketch(depth, width);
+        Map<String, Double> exact = new HashMap<>();
+        Random random = new Random(7);
+        double total = 0;
+        for (int i = 0; i < 50_000; i++) {
+            // Zipf-like skew, as with tag popularity
+            String key = "tag" + (int) (2_000 * Math.pow(random.nextDouble(), 3));
+            sketch.add(key, 1);
+            exact.merge(key, 1.0, Double::sum);
+            total++;
+        }
+
+        double bound = Math.E / width * total;
+        long outsideBound = 0;
+        for (Map.Entry<String, Double> entry : exact.entrySet()) {
+            double estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() > bound) {
+                outsideBound++;
+            }
+        }
+        // The bound holds with probability 1 - e^-depth per key
+        assertThat((double) outsideBound / exact.size()).isLessThan(Math.exp(-depth) * 2);
+    }
+
+    @Test
+    void scaleDecaysEveryCount() {
+        CountMinSketch sketch = new CountMinSketch(2, 64);
+        sketch.add("java", 8);
+
+        sketch.scale(0.5);
+
+        assertThat(sketch.estimate("java")).isEqualTo(4);
+    }
+
+    @Test
+    void restoresFromCopiedCells() {
+        CountMinSketch sketch = new CountMinSketch(3, 32);
+        sketch.add("java", 5);
+
+        CountMinSketch restored = new CountMinSketch(sketch.getDepth(), sketch.getWidth(), sketch.copyCells());
+
+        assertThat(restored.estimate("java")).isEqualTo(5);
+        assertThatThrownBy(() -> new CountMinSketch(3, 32, new double[10]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
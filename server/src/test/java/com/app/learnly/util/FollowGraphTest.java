@@ -0,0 +1,93 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowGraphTest {
+
+    @Test
+    void addEdgeAddsEachEdgeOnce() {
+        FollowGraph graph = new FollowGraph(4);
+
+        assertThat(graph.addEdge("a", "b")).isTrue();
+        assertThat(graph.addEdge("a", "b")).isFalse();
+        assertThat(graph.addEdge("b", "a")).isTrue();
+
+        int a = graph.indexOf("a");
+        int b = graph.indexOf("b");
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.nodeCount()).isEqualTo(2);
+        assertThat(graph.outDegree(a)).isEqualTo(1);
+        assertThat(graph.inDegree(a)).isEqualTo(1);
+        assertThat(graph.following(a)[0]).isEqualTo(b);
+        assertThat(graph.followers(b)[0]).isEqualTo(a);
+        assertThat(graph.idOf(b)).isEqualTo("b");
+        assertThat(graph.indexOf("unknown")).isEqualTo(-1);
+    }
+
+    @Test
+    void addEdgeGrowsPastTheExpectedNodeCount() {
+        FollowGraph graph = new FollowGraph(1);
+        for (int i = 0; i < 100; i++) {
+            graph.addEdge("hub", "user" + i);
+        }
+
+        assertThat(graph.nodeCount()).isEqualTo(101);
+        assertThat(graph.outDegree(graph.indexOf("hub"))).isEqualTo(100);
+        assertThat(graph.inDegree(graph.indexOf("user99"))).isEqualTo(1);
+    }
+
+    @Test
+    void removeEdgeKeepsTheOtherNeighboursInOrder() {
+        FollowGraph graph = new FollowGraph(4);
+        graph.addEdge("a", "b");
+        graph.addEdge("a", "c");
+        graph.addEdge("a", "d");
+
+        assertThat(graph.removeEdge("a", "c")).isTrue();
+
+        int a = graph.indexOf("a");
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.outDegree(a)).isEqualTo(2);
+        assertThat(Arrays.copyOf(graph.following(a), 2))
+                .containsExactly(graph.indexOf("b"), graph.indexOf("d"));
+        assertThat(graph.inDegree(graph.indexOf("c"))).isZero();
+    }
+
+    @Test
+    void removeEdgeOfAMissingEdgeChangesNothing() {
+        FollowGraph graph = new FollowGraph(4);
+        graph.addEdge("a", "b");
+
+        assertThat(graph.removeEdge("b", "a")).isFalse();
+        assertThat(graph.removeEdge("a", "unknown")).isFalse();
+        assertThat(graph.removeEdge("unknown", "a")).isFalse();
+        assertThat(graph.edgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void trimShrinksArraysToTheirDegreeAndKeepsEdges() {
+        FollowGraph graph = new FollowGraph(4);
+        graph.addNewEdge("a", "b");
+        graph.addNewEdge("a", "c");
+        graph.addNewEdge("c", "b");
+        long before = graph.estimatedBytes();
+
+        graph.trim();
+
+        int a = graph.indexOf("a");
+        int b = graph.indexOf("b");
+        assertThat(graph.following(a)).containsExactly(b, graph.indexOf("c"));
+        assertThat(graph.followers(b)).containsExactly(a, graph.indexOf("c"));
+        assertThat(graph.following(b)).isEmpty();
+        assertThat(graph.estimatedBytes()).isLessThan(before);
+
+        // Edges can still be added and removed after a trim
+        assertThat(graph.addEdge("b", "a")).isTrue();
+        assertThat(graph.removeEdge("a", "b")).isTrue();
+        assertThat(graph.edgeCount()).isEqualTo(3);
+    }
+}
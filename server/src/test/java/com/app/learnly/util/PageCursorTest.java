@@ -0,0 +1,52 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void decodeReadsBackAnEncodedCursor() {
+        Date createdAt = new Date(1_700_000_000_123L);
+        PageCursor cursor = PageCursor.decode(new PageCursor(createdAt, "65f0c0ffee0000000000abcd").encode());
+
+        assertThat(cursor.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(cursor.getId()).isEqualTo("65f0c0ffee0000000000abcd");
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = new PageCursor(new Date(Long.MAX_VALUE), "id-with:colon?&").encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(PageCursor.decode(token).getId()).isEqualTo("id-with:colon?&");
+    }
+
+    @Test
+    void decodeOfNoTokenIsNull() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void decodeRejectsMalformedTokens() {
+        assertThatThrownBy(() -> PageCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(encode("no-separator"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(encode(":65f0c0ffee0000000000abcd")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(encode("1700000000000:"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(encode("yesterday:65f0c0ffee0000000000abcd")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchKeysTest {
+
+    @Test
+    void tokensAreLowercasedAndStrippedOfAccents() {
+        assertThat(SearchKeys.tokens("José Ñúñez")).containsExactly("jose", "nunez");
+    }
+
+    @Test
+    void tokensSplitOnAnythingButLettersAndDigits() {
+        assertThat(SearchKeys.tokens("  Mary-Jane O'Neil, 3rd ")).containsExactly("mary", "jane", "o", "neil", "3rd");
+    }
+
+    @Test
+    void tokensAreDistinctAndInOrder() {
+        assertThat(SearchKeys.tokens("Anna anna ANNA Smith")).containsExactly("anna", "smith");
+    }
+
+    @Test
+    void tokensNeverContainRegexCharacters() {
+        assertThat(SearchKeys.tokens("a.*b (c)+ [d]")).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    void noTextHasNoTokens() {
+        assertThat(SearchKeys.tokens(null)).isEmpty();
+        assertThat(SearchKeys.tokens("  ")).isEmpty();
+        assertThat(SearchKeys.tokens("--")).isEmpty();
+    }
+
+    @Test
+    void namesAndEmailsNormalizeForSortingAndPrefixes() {
+        assertThat(SearchKeys.normalizeName(" Élodie Durand ")).isEqualTo("elodie durand");
+        assertThat(SearchKeys.normalizeName(null)).isEmpty();
+        assertThat(SearchKeys.normalizeEmail(" Jane.Doe@Example.COM ")).isEqualTo("jane.doe@example.com");
+        assertThat(SearchKeys.normalizeEmail(null)).isNull();
+    }
+}
@@ -0,0 +1,35 @@
+package com.app.learnly.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTest {
+
+    @Test
+    void analyzeLowercasesSplitsAndDropsStopWords() {
+        assertThat(TextAnalyzer.analyze("The Basics of Java, and Spring-Boot 3!"))
+                .containsExactly("basic", "java", "spring", "boot", "3");
+    }
+
+    @Test
+    void analyzeOfNoTextIsEmpty() {
+        assertThat(TextAnalyzer.analyze(null)).isEmpty();
+        assertThat(TextAnalyzer.analyze("")).isEmpty();
+        assertThat(TextAnalyzer.analyze("the and of")).isEmpty();
+    }
+
+    @Test
+    void inflectionsShareAStem() {
+        assertThat(TextAnalyzer.analyze("learning learned learns learn")).containsOnly("learn");
+        assertThat(TextAnalyzer.analyze("study studies studied")).containsOnly("studi");
+        assertThat(TextAnalyzer.analyze("running runs")).containsOnly("run");
+    }
+
+    @Test
+    void shortWordsAndNumbersAreKeptAsIs() {
+        assertThat(TextAnalyzer.stem("sql")).isEqualTo("sql");
+        assertThat(TextAnalyzer.stem("2024s")).isEqualTo("2024s");
+        assertThat(TextAnalyzer.stem("class")).isEqualTo("class");
+    }
+}